@@ -4,6 +4,9 @@ import java.text.*;
 import java.time.*;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 
@@ -32,6 +35,11 @@ public class DateUtils {
         DEFAULT_ZONE_OFFSET = ZoneOffset.ofHours((int)offsetInHours);
     }
 
+    /**
+     * DEFAULT_ZONE_OFFSET in millis
+     */
+    static final long DEFAULT_OFFSET_MSEC = DEFAULT_ZONE_OFFSET.getTotalSeconds() * 1000L;
+
 
     public static java.sql.Date convertUtilToSql(java.util.Date uDate) {
         return new java.sql.Date(uDate.getTime());
@@ -314,11 +322,12 @@ public class DateUtils {
     public static Date parse(String dateStr, String format) {
         validateDateString(dateStr);
 
-        SimpleDateFormat sdf = new SimpleDateFormat(format);
-        sdf.setTimeZone(DEFAULT_TIME_ZONE);
+        long isoMillis = IsoParser.parse(dateStr, format);
+        if (isoMillis != IsoParser.NOT_PARSED)
+            return new Date(isoMillis);
 
         try {
-            return sdf.parse(dateStr);
+            return FormatterHolder.get(format, DEFAULT_TIME_ZONE).parse(dateStr);
         } catch (ParseException e) {
             throw new RuntimeException(e);
         }
@@ -430,7 +439,7 @@ public class DateUtils {
     public static String toString(Date date, String format) {
         validateDate(date);
 
-        DateFormat dateFormat = new SimpleDateFormat(format);
+        DateFormat dateFormat = FormatterHolder.get(format, TimeZone.getDefault());
         return dateFormat.format(date);
     }
 
@@ -505,6 +514,32 @@ public class DateUtils {
     }
 
 
+    /**
+     * Days are aligned like {@link #getBeginCurrDay(Date)}
+     *
+     * @param epochMillis epochMillis
+     * @return days since 1970-01-01 in DEFAULT_ZONE_OFFSET
+     */
+    static long toEpochDay(long epochMillis) {
+        return Math.floorDiv(epochMillis + DEFAULT_OFFSET_MSEC, (long) DAY_IN_MSEC);
+    }
+
+    /**
+     * @param epochMillis epochMillis
+     * @return millis since begin of the day in DEFAULT_ZONE_OFFSET
+     */
+    static int toMillisOfDay(long epochMillis) {
+        return (int) Math.floorMod(epochMillis + DEFAULT_OFFSET_MSEC, (long) DAY_IN_MSEC);
+    }
+
+    /**
+     * @param epochDay days since 1970-01-01 in DEFAULT_ZONE_OFFSET
+     * @param millisOfDay millisOfDay
+     * @return epoch millis
+     */
+    static long toEpochMillis(long epochDay, long millisOfDay) {
+        return epochDay * DAY_IN_MSEC + millisOfDay - DEFAULT_OFFSET_MSEC;
+    }
     private static void validateDateString(String dateStr) {
         requireNonNull(dateStr, "The dateString passed cannot be null");
     }
@@ -520,4 +555,120 @@ public class DateUtils {
     private static void validateDate(LocalDateTime date) {
         requireNonNull(date, "The localDateTime passed cannot be null");
     }
+
+
+    /**
+     * Formatters are built on first use and confined to the thread, SimpleDateFormat is not thread-safe.
+     * They are built like new SimpleDateFormat(format) would be: for the current default locale and time zone.
+     * Holds no state from class init, so it may be initialized at image build time.
+     */
+    private static final class FormatterHolder {
+
+        private static final int MAX_FORMATS_PER_THREAD = 16;
+
+        private static final ThreadLocal<Formatters> FORMATTERS = ThreadLocal.withInitial(Formatters::new);
+
+        /**
+         * @param format format
+         * @param timeZone timeZone
+         * @return formatter of the current thread, not to be passed to other threads
+         */
+        private static SimpleDateFormat get(String format, TimeZone timeZone) {
+            Formatters formatters = FORMATTERS.get();
+
+            // formatters of other locale give other month and day names
+            Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+            if (!locale.equals(formatters.locale)) {
+                formatters.byFormat.clear();
+                formatters.locale = locale;
+            }
+
+            SimpleDateFormat sdf = formatters.byFormat.get(format);
+            if (sdf == null) {
+                sdf = new SimpleDateFormat(format, locale);
+                if (formatters.byFormat.size() < MAX_FORMATS_PER_THREAD)
+                    formatters.byFormat.put(format, sdf);
+            }
+            sdf.setTimeZone(timeZone);
+            return sdf;
+        }
+
+        private static final class Formatters {
+
+            private final Map<String, SimpleDateFormat> byFormat = new HashMap<>();
+
+            private Locale locale;
+        }
+    }
+
+    /**
+     * Parses canonical ISO strings ("2017-02-02", "2017-02-02T10:10:10") without SimpleDateFormat.
+     * Everything else (other lengths, out of range fields, Julian dates, time zones with transitions)
+     * is left to SimpleDateFormat, so results stay the same.
+     */
+    private static final class IsoParser {
+
+        private static final long NOT_PARSED = Long.MIN_VALUE;
+
+        private static final int MIN_GREGORIAN_YEAR = 1583;
+
+        /**
+         * Offset of DEFAULT_TIME_ZONE in millis or null if it ever changed
+         */
+        private static final Integer FIXED_OFFSET_MSEC = DEFAULT_TIME_ZONE.toZoneId().getRules().isFixedOffset()
+                ? DEFAULT_TIME_ZONE.getRawOffset()
+                : null;
+
+        /**
+         * @param dateStr dateStr
+         * @param format format
+         * @return epoch millis or NOT_PARSED
+         */
+        private static long parse(String dateStr, String format) {
+            boolean withTime;
+            if (DATE_FORMAT_ISO.equals(format)) {
+                if (dateStr.length() != 19 || dateStr.charAt(10) != 'T' || dateStr.charAt(13) != ':' || dateStr.charAt(16) != ':')
+                    return NOT_PARSED;
+                withTime = true;
+            } else if (ONLY_DATE_FORMAT_ISO.equals(format)) {
+                if (dateStr.length() != 10)
+                    return NOT_PARSED;
+                withTime = false;
+            } else {
+                return NOT_PARSED;
+            }
+            if (dateStr.charAt(4) != '-' || dateStr.charAt(7) != '-' || FIXED_OFFSET_MSEC == null)
+                return NOT_PARSED;
+
+            int year = digits(dateStr, 0, 4);
+            int month = digits(dateStr, 5, 2);
+            int day = digits(dateStr, 8, 2);
+            int hour = withTime ? digits(dateStr, 11, 2) : 0;
+            int minute = withTime ? digits(dateStr, 14, 2) : 0;
+            int second = withTime ? digits(dateStr, 17, 2) : 0;
+
+            if (year < MIN_GREGORIAN_YEAR || month < 1 || month > 12 || day < 1
+                    || day > Month.of(month).length(Year.isLeap(year))
+                    || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59)
+                return NOT_PARSED;
+
+            long epochDay = LocalDate.of(year, month, day).toEpochDay();
+            long secondOfDay = hour * 3600L + minute * 60L + second;
+            return epochDay * DAY_IN_MSEC + secondOfDay * 1000 - FIXED_OFFSET_MSEC;
+        }
+
+        /**
+         * @return parsed ASCII digits or -1
+         */
+        private static int digits(String str, int from, int count) {
+            int value = 0;
+            for (int i = from; i < from + count; i++) {
+                char c = str.charAt(i);
+                if (c < '0' || c > '9')
+                    return -1;
+                value = value * 10 + (c - '0');
+            }
+            return value;
+        }
+    }
 }
@@ -0,0 +1,436 @@
+package util;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static java.util.Objects.requireNonNull;
+import static util.DateUtils.toEpochDay;
+
+/**
+ * Immutable set of date ranges in epoch millis, with included boundaries like {@link DateUtils#isBetween(Date, Date, Date)}.
+ *
+ * Ranges are kept sorted, not overlapping and not adjacent, in two primitive arrays.
+ * Union, intersection and difference are linear merge sweeps, large sets are split by value
+ * into chunks which are swept in parallel.
+ */
+public final class IntervalSet {
+
+    private static final IntervalSet EMPTY = new IntervalSet(new long[0], new long[0]);
+
+    /**
+     * Total count of ranges in both sets from which operations run in parallel
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private enum Operation {
+        UNION, INTERSECTION, DIFFERENCE;
+
+        private boolean apply(boolean inFirst, boolean inSecond) {
+            switch (this) {
+                case UNION:
+                    return inFirst || inSecond;
+                case INTERSECTION:
+                    return inFirst && inSecond;
+                default:
+                    return inFirst && !inSecond;
+            }
+        }
+    }
+
+    private final long[] starts;
+
+    private final long[] ends;
+
+    private IntervalSet(long[] starts, long[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    /**
+     * @return empty set
+     */
+    public static IntervalSet empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @param dateFrom dateFrom
+     * @param dateTo dateTo
+     * @return set with single range
+     */
+    public static IntervalSet of(Date dateFrom, Date dateTo) {
+        validateDate(dateFrom);
+        validateDate(dateTo);
+        return of(dateFrom.getTime(), dateTo.getTime());
+    }
+
+    /**
+     * @param from from epoch millis
+     * @param to to epoch millis
+     * @return set with single range
+     */
+    public static IntervalSet of(long from, long to) {
+        validateRange(from, to);
+        return new IntervalSet(new long[] {from}, new long[] {to});
+    }
+
+    /**
+     * Ranges may be unsorted and overlap, result is their union
+     *
+     * @param from from epoch millis of every range
+     * @param to to epoch millis of every range
+     * @return IntervalSet
+     */
+    public static IntervalSet of(long[] from, long[] to) {
+        requireNonNull(from, "The from passed cannot be null");
+        requireNonNull(to, "The to passed cannot be null");
+        if (from.length != to.length)
+            throw new IllegalArgumentException("Count of from and to must be equal: " + from.length + ", " + to.length);
+
+        for (int i = 0; i < from.length; i++) {
+            validateRange(from[i], to[i]);
+        }
+
+        // union depends only on sorted boundaries, pairs don't need to be kept together
+        long[] sortedStarts = from.clone();
+        long[] sortedEnds = to.clone();
+        Arrays.parallelSort(sortedStarts);
+        Arrays.parallelSort(sortedEnds);
+
+        long[] starts = new long[from.length];
+        long[] ends = new long[from.length];
+        int size = 0;
+        int depth = 0;
+        int i = 0;
+        int j = 0;
+        while (j < sortedEnds.length) {
+            // start right after an end continues the range
+            if (i < sortedStarts.length && sortedStarts[i] <= sortedEnds[j] + 1) {
+                if (depth++ == 0)
+                    starts[size] = sortedStarts[i];
+                i++;
+            } else {
+                if (--depth == 0)
+                    ends[size++] = sortedEnds[j];
+                j++;
+            }
+        }
+
+        return size == 0 ? EMPTY : new IntervalSet(Arrays.copyOf(starts, size), Arrays.copyOf(ends, size));
+    }
+
+    /**
+     * @return count of ranges
+     */
+    public int size() {
+        return starts.length;
+    }
+
+    /**
+     * @return true if there are no ranges
+     */
+    public boolean isEmpty() {
+        return starts.length == 0;
+    }
+
+    /**
+     * @param index index
+     * @return from epoch millis of range
+     */
+    public long getFrom(int index) {
+        return starts[index];
+    }
+
+    /**
+     * @param index index
+     * @return to epoch millis of range
+     */
+    public long getTo(int index) {
+        return ends[index];
+    }
+
+    /**
+     * @param date date
+     * @return true if date is in any range
+     */
+    public boolean contains(Date date) {
+        validateDate(date);
+        return contains(date.getTime());
+    }
+
+    /**
+     * @param epochMillis epochMillis
+     * @return true if epochMillis is in any range
+     */
+    public boolean contains(long epochMillis) {
+        int pos = Arrays.binarySearch(starts, epochMillis);
+        if (pos >= 0)
+            return true;
+
+        int previous = -pos - 2;
+        return previous >= 0 && ends[previous] >= epochMillis;
+    }
+
+    /**
+     * @param other other
+     * @return ranges in this or other set
+     */
+    public IntervalSet union(IntervalSet other) {
+        return combine(other, Operation.UNION);
+    }
+
+    /**
+     * @param other other
+     * @return ranges in both sets
+     */
+    public IntervalSet intersect(IntervalSet other) {
+        return combine(other, Operation.INTERSECTION);
+    }
+
+    /**
+     * @param other other
+     * @return ranges in this set but not in other
+     */
+    public IntervalSet minus(IntervalSet other) {
+        return combine(other, Operation.DIFFERENCE);
+    }
+
+    /**
+     * @return ranges between first and last range which are not in the set
+     */
+    public IntervalSet gaps() {
+        if (starts.length < 2)
+            return EMPTY;
+
+        long[] gapStarts = new long[starts.length - 1];
+        long[] gapEnds = new long[starts.length - 1];
+        for (int i = 0; i < gapStarts.length; i++) {
+            gapStarts[i] = ends[i] + 1;
+            gapEnds[i] = starts[i + 1] - 1;
+        }
+        return new IntervalSet(gapStarts, gapEnds);
+    }
+
+    /**
+     * With included boundary dates
+     *
+     * @param dateFrom dateFrom
+     * @param dateTo dateTo
+     * @return ranges between dateFrom and dateTo which are not in the set
+     */
+    public IntervalSet gapsBetween(Date dateFrom, Date dateTo) {
+        return of(dateFrom, dateTo).minus(this);
+    }
+
+    /**
+     * With included boundaries, so it is additive: [0, 9] and [10, 19] give 10 + 10
+     *
+     * @return sum of (to - from + 1) of all ranges in millis
+     */
+    public long getTotalMillis() {
+        long total = 0;
+        for (int i = 0; i < starts.length; i++) {
+            total += ends[i] - starts[i] + 1;
+        }
+        return total;
+    }
+
+    /**
+     * Sum of {@link DateUtils#getCountDaysBetween(Date, Date)} of all ranges
+     *
+     * @return count of days
+     */
+    public long getCountDays() {
+        long total = 0;
+        for (int i = 0; i < starts.length; i++) {
+            total += toEpochDay(ends[i]) - toEpochDay(starts[i]);
+        }
+        return total;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof IntervalSet))
+            return false;
+
+        IntervalSet other = (IntervalSet) o;
+        return Arrays.equals(starts, other.starts) && Arrays.equals(ends, other.ends);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(starts) + Arrays.hashCode(ends);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < starts.length; i++) {
+            if (i > 0)
+                sb.append(", ");
+            sb.append('[').append(DateUtils.toStringISO(new Date(starts[i])))
+                    .append(", ").append(DateUtils.toStringISO(new Date(ends[i]))).append(']');
+        }
+        return sb.append(']').toString();
+    }
+
+
+    private IntervalSet combine(IntervalSet other, Operation operation) {
+        requireNonNull(other, "The intervalSet passed cannot be null");
+
+        if (starts.length + other.starts.length < PARALLEL_THRESHOLD)
+            return sweep(this, other, operation);
+
+        return combineParallel(other, operation);
+    }
+
+    /**
+     * Splits values into chunks by range starts of the larger set, every chunk is clipped and swept
+     * separately, ranges touching at chunk borders are merged afterwards
+     */
+    private IntervalSet combineParallel(IntervalSet other, Operation operation) {
+        IntervalSet larger = starts.length >= other.starts.length ? this : other;
+        int chunks = Math.max(2, ForkJoinPool.getCommonPoolParallelism() * 4);
+
+        long[] bounds = new long[chunks + 1];
+        bounds[0] = Long.MIN_VALUE;
+        for (int i = 1; i < chunks; i++) {
+            bounds[i] = Math.max(bounds[i - 1], larger.starts[(int) ((long) larger.starts.length * i / chunks)]);
+        }
+        bounds[chunks] = Long.MAX_VALUE;
+
+        IntervalSet[] parts = IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(i -> bounds[i] == bounds[i + 1]
+                        ? EMPTY
+                        : sweep(clip(bounds[i], bounds[i + 1] - 1), other.clip(bounds[i], bounds[i + 1] - 1), operation))
+                .toArray(IntervalSet[]::new);
+
+        return concat(parts);
+    }
+
+    /**
+     * @return ranges of this set cut to [from, to]
+     */
+    private IntervalSet clip(long from, long to) {
+        int first = lowerBound(ends, from);
+        int last = lowerBound(starts, to == Long.MAX_VALUE ? to : to + 1);
+        if (first >= last)
+            return EMPTY;
+
+        long[] clippedStarts = Arrays.copyOfRange(starts, first, last);
+        long[] clippedEnds = Arrays.copyOfRange(ends, first, last);
+        clippedStarts[0] = Math.max(clippedStarts[0], from);
+        clippedEnds[clippedEnds.length - 1] = Math.min(clippedEnds[clippedEnds.length - 1], to);
+        return new IntervalSet(clippedStarts, clippedEnds);
+    }
+
+    /**
+     * Linear sweep over boundaries of both sets, boundaries are half-open: from and to + 1
+     */
+    private static IntervalSet sweep(IntervalSet first, IntervalSet second, Operation operation) {
+        int firstCount = first.starts.length * 2;
+        int secondCount = second.starts.length * 2;
+
+        long[] resultStarts = new long[first.starts.length + second.starts.length];
+        long[] resultEnds = new long[resultStarts.length];
+        int size = 0;
+
+        boolean in = false;
+        int i = 0;
+        int j = 0;
+        while (i < firstCount || j < secondCount) {
+            long x = Math.min(
+                    i < firstCount ? boundary(first, i) : Long.MAX_VALUE,
+                    j < secondCount ? boundary(second, j) : Long.MAX_VALUE);
+
+            while (i < firstCount && boundary(first, i) == x) {
+                i++;
+            }
+            while (j < secondCount && boundary(second, j) == x) {
+                j++;
+            }
+
+            boolean out = operation.apply((i & 1) == 1, (j & 1) == 1);
+            if (out == in)
+                continue;
+
+            if (out) {
+                resultStarts[size] = x;
+            } else {
+                resultEnds[size++] = x - 1;
+            }
+            in = out;
+        }
+
+        if (size == 0)
+            return EMPTY;
+
+        return new IntervalSet(Arrays.copyOf(resultStarts, size), Arrays.copyOf(resultEnds, size));
+    }
+
+    private static long boundary(IntervalSet set, int index) {
+        return (index & 1) == 0 ? set.starts[index >> 1] : set.ends[index >> 1] + 1;
+    }
+
+    /**
+     * @param parts sets ordered by value, not overlapping
+     * @return union of parts, ranges touching at part borders are merged
+     */
+    private static IntervalSet concat(IntervalSet[] parts) {
+        int total = 0;
+        for (IntervalSet part : parts) {
+            total += part.starts.length;
+        }
+
+        long[] starts = new long[total];
+        long[] ends = new long[total];
+        int size = 0;
+        for (IntervalSet part : parts) {
+            for (int i = 0; i < part.starts.length; i++) {
+                if (size > 0 && ends[size - 1] + 1 == part.starts[i]) {
+                    ends[size - 1] = part.ends[i];
+                } else {
+                    starts[size] = part.starts[i];
+                    ends[size++] = part.ends[i];
+                }
+            }
+        }
+
+        if (size == 0)
+            return EMPTY;
+
+        return new IntervalSet(Arrays.copyOf(starts, size), Arrays.copyOf(ends, size));
+    }
+
+    /**
+     * @return first index with value >= key
+     */
+    private static int lowerBound(long[] values, long key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    private static void validateRange(long from, long to) {
+        if (from > to)
+            throw new IllegalArgumentException("From cannot be after to: " + from + ", " + to);
+        if (to == Long.MAX_VALUE)
+            throw new IllegalArgumentException("To must be less than Long.MAX_VALUE");
+    }
+
+    private static void validateDate(Date date) {
+        requireNonNull(date, "The date passed cannot be null");
+    }
+}
@@ -0,0 +1,272 @@
+package util;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+
+import static java.util.Objects.requireNonNull;
+import static util.DateUtils.MIN_IN_MSEC;
+
+/**
+ * Civil date-time packed into a single long, in timeZone {@link DateUtils#DEFAULT_TIME_ZONE}.
+ *
+ * Bits from high to low: year (signed, 28) | month - 1 (4) | day - 1 (5) | hour (5) | minute (6) | second (6) | millis (10).
+ * Plain long comparison gives chronological order, truncation to day, month or year is a mask.
+ */
+public final class PackedDateTime {
+
+    public static final int MIN_YEAR = -(1 << 27);
+
+    public static final int MAX_YEAR = (1 << 27) - 1;
+
+    private static final int MILLIS_SHIFT = 0;
+    private static final int SECOND_SHIFT = 10;
+    private static final int MINUTE_SHIFT = 16;
+    private static final int HOUR_SHIFT = 22;
+    private static final int DAY_SHIFT = 27;
+    private static final int MONTH_SHIFT = 32;
+    private static final int YEAR_SHIFT = 36;
+
+    private static final long MILLIS_MASK = 0x3FFL;
+    private static final long SECOND_MASK = 0x3FL;
+    private static final long MINUTE_MASK = 0x3FL;
+    private static final long HOUR_MASK = 0x1FL;
+    private static final long DAY_MASK = 0x1FL;
+    private static final long MONTH_MASK = 0xFL;
+
+    private static final long DAY_TRUNCATE_MASK = -1L << DAY_SHIFT;
+    private static final long MONTH_TRUNCATE_MASK = -1L << MONTH_SHIFT;
+    private static final long YEAR_TRUNCATE_MASK = -1L << YEAR_SHIFT;
+
+    private static final int DAYS_0000_TO_1970 = 719468;   // days from 0000-03-01 to 1970-01-01
+
+    private PackedDateTime() {
+    }
+
+    /**
+     * @param year year
+     * @param month month 1..12
+     * @param day day of month
+     * @param hour hour
+     * @param minute minute
+     * @param second second
+     * @param millis millis
+     * @return packed date-time
+     */
+    public static long of(int year, int month, int day, int hour, int minute, int second, int millis) {
+        checkRange("year", year, MIN_YEAR, MAX_YEAR);
+        checkRange("month", month, 1, 12);
+        checkRange("day", day, 1, lengthOfMonth(year, month));
+        checkRange("hour", hour, 0, 23);
+        checkRange("minute", minute, 0, 59);
+        checkRange("second", second, 0, 59);
+        checkRange("millis", millis, 0, 999);
+
+        return pack(year, month, day, hour, minute, second, millis);
+    }
+
+    /**
+     * @param epochMillis epochMillis
+     * @return packed date-time
+     */
+    public static long ofEpochMillis(long epochMillis) {
+        long epochDay = DateUtils.toEpochDay(epochMillis);
+        int millisOfDay = DateUtils.toMillisOfDay(epochMillis);
+
+        // civil from days, era based (see "chrono-Compatible Low-Level Date Algorithms")
+        long z = epochDay + DAYS_0000_TO_1970;
+        long era = Math.floorDiv(z, 146097L);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthIndex = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * monthIndex + 2) / 5 + 1);
+        int month = (int) (monthIndex < 10 ? monthIndex + 3 : monthIndex - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        checkRange("year", year, MIN_YEAR, MAX_YEAR);
+
+        return pack((int) year, month, day,
+                millisOfDay / 3_600_000,
+                millisOfDay / MIN_IN_MSEC % 60,
+                millisOfDay / 1000 % 60,
+                millisOfDay % 1000);
+    }
+
+    /**
+     * @param date date
+     * @return packed date-time
+     */
+    public static long of(Date date) {
+        requireNonNull(date, "The date passed cannot be null");
+        return ofEpochMillis(date.getTime());
+    }
+
+    /**
+     * @param localDateTime localDateTime
+     * @return packed date-time
+     */
+    public static long of(LocalDateTime localDateTime) {
+        requireNonNull(localDateTime, "The localDateTime passed cannot be null");
+        return of(localDateTime.getYear(),
+                localDateTime.getMonthValue(),
+                localDateTime.getDayOfMonth(),
+                localDateTime.getHour(),
+                localDateTime.getMinute(),
+                localDateTime.getSecond(),
+                localDateTime.getNano() / 1_000_000);
+    }
+
+    /**
+     * @param packed packed date-time
+     * @return epoch millis
+     */
+    public static long toEpochMillis(long packed) {
+        int year = getYear(packed);
+        int month = getMonth(packed);
+
+        // days from civil, inverse of ofEpochMillis
+        long y = month <= 2 ? year - 1L : year;
+        long era = Math.floorDiv(y, 400L);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + getDayOfMonth(packed) - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        long epochDay = era * 146097 + dayOfEra - DAYS_0000_TO_1970;
+
+        long millisOfDay = getHour(packed) * 3_600_000L
+                + getMinute(packed) * (long) MIN_IN_MSEC
+                + getSecond(packed) * 1000L
+                + getMillis(packed);
+
+        return DateUtils.toEpochMillis(epochDay, millisOfDay);
+    }
+
+    /**
+     * @param packed packed date-time
+     * @return Date
+     */
+    public static Date toDate(long packed) {
+        return new Date(toEpochMillis(packed));
+    }
+
+    /**
+     * @param packed packed date-time
+     * @return LocalDateTime
+     */
+    public static LocalDateTime toLocalDateTime(long packed) {
+        return LocalDateTime.of(getYear(packed), getMonth(packed), getDayOfMonth(packed),
+                getHour(packed), getMinute(packed), getSecond(packed), getMillis(packed) * 1_000_000);
+    }
+
+    /**
+     * @param packed packed date-time
+     * @return year
+     */
+    public static int getYear(long packed) {
+        return (int) (packed >> YEAR_SHIFT);
+    }
+
+    /**
+     * @param packed packed date-time
+     * @return month 1..12
+     */
+    public static int getMonth(long packed) {
+        return (int) ((packed >>> MONTH_SHIFT) & MONTH_MASK) + 1;
+    }
+
+    /**
+     * @param packed packed date-time
+     * @return day of month
+     */
+    public static int getDayOfMonth(long packed) {
+        return (int) ((packed >>> DAY_SHIFT) & DAY_MASK) + 1;
+    }
+
+    /**
+     * @param packed packed date-time
+     * @return hour
+     */
+    public static int getHour(long packed) {
+        return (int) ((packed >>> HOUR_SHIFT) & HOUR_MASK);
+    }
+
+    /**
+     * @param packed packed date-time
+     * @return minute
+     */
+    public static int getMinute(long packed) {
+        return (int) ((packed >>> MINUTE_SHIFT) & MINUTE_MASK);
+    }
+
+    /**
+     * @param packed packed date-time
+     * @return second
+     */
+    public static int getSecond(long packed) {
+        return (int) ((packed >>> SECOND_SHIFT) & SECOND_MASK);
+    }
+
+    /**
+     * @param packed packed date-time
+     * @return millis
+     */
+    public static int getMillis(long packed) {
+        return (int) ((packed >>> MILLIS_SHIFT) & MILLIS_MASK);
+    }
+
+    /**
+     * Like {@link DateUtils#getBeginCurrDay(LocalDateTime)}
+     *
+     * @param packed packed date-time
+     * @return packed begin of day
+     */
+    public static long truncateToDay(long packed) {
+        return packed & DAY_TRUNCATE_MASK;
+    }
+
+    /**
+     * Like {@link DateUtils#getBeginCurrMonth(Date)}
+     *
+     * @param packed packed date-time
+     * @return packed begin of month
+     */
+    public static long truncateToMonth(long packed) {
+        return packed & MONTH_TRUNCATE_MASK;
+    }
+
+    /**
+     * Like {@link DateUtils#getBeginCurrYear(Date)}
+     *
+     * @param packed packed date-time
+     * @return packed begin of year
+     */
+    public static long truncateToYear(long packed) {
+        return packed & YEAR_TRUNCATE_MASK;
+    }
+
+
+    private static long pack(int year, int month, int day, int hour, int minute, int second, int millis) {
+        return ((long) year << YEAR_SHIFT)
+                | ((long) (month - 1) << MONTH_SHIFT)
+                | ((long) (day - 1) << DAY_SHIFT)
+                | ((long) hour << HOUR_SHIFT)
+                | ((long) minute << MINUTE_SHIFT)
+                | ((long) second << SECOND_SHIFT)
+                | ((long) millis << MILLIS_SHIFT);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        if (month == 2)
+            return isLeapYear(year) ? 29 : 28;
+
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static void checkRange(String field, long value, long min, long max) {
+        if (value < min || value > max)
+            throw new IllegalArgumentException("Invalid value for " + field + ": " + value);
+    }
+}
@@ -0,0 +1,226 @@
+package util;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.requireNonNull;
+import static util.DateUtils.DATE_FORMAT_ISO;
+import static util.DateUtils.ONLY_DATE_FORMAT_ISO;
+
+/**
+ * Optional cache of {@link DateUtils#parse(String, String)} results for feeds which repeat the same date strings.
+ *
+ * Holds at most capacity entries of (format, dateString) to epoch millis. Entries are grouped into small sets,
+ * eviction inside a set is CLOCK (second chance by reference bit). Reads don't lock, concurrent misses
+ * may parse the same string twice. Every call returns a new Date, so callers cannot change cached values.
+ * Strings and formats longer than {@link #MAX_CACHED_LENGTH} are parsed without caching, to keep memory bounded.
+ */
+public class ParseCache {
+
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    public static final int MAX_CACHED_LENGTH = 64;
+
+    private static final int WAYS = 4;
+
+    private final AtomicReferenceArray<Entry> entries;
+
+    private final AtomicIntegerArray referenced;
+
+    /**
+     * CLOCK hand of every set, offset of the next slot to check inside the set
+     */
+    private final AtomicIntegerArray hands;
+
+    private final int setMask;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    public ParseCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity max count of entries, rounded up to power of two
+     */
+    public ParseCache(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30)
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+
+        int size = Math.max(WAYS, Integer.highestOneBit(capacity - 1) << 1);
+        this.entries = new AtomicReferenceArray<>(size);
+        this.referenced = new AtomicIntegerArray(size);
+        this.hands = new AtomicIntegerArray(size / WAYS);
+        this.setMask = size / WAYS - 1;
+    }
+
+    /**
+     * @param dateStr dateStr
+     * @param format format
+     * @return Date
+     */
+    public Date parse(String dateStr, String format) {
+        return new Date(parseToEpochMillis(dateStr, format));
+    }
+
+    /**
+     * Parse format ISO with/without time, like {@link DateUtils#parseISO(String)}
+     *
+     * @param dateStr dateStr
+     * @return Date
+     */
+    public Date parseISO(String dateStr) {
+        validateDateString(dateStr);
+
+        if (dateStr.contains("T"))
+            return parse(dateStr, DATE_FORMAT_ISO);
+
+        return parse(dateStr, ONLY_DATE_FORMAT_ISO);
+    }
+
+    /**
+     * @param dateStr dateStr
+     * @param format format
+     * @return LocalDateTime
+     */
+    public LocalDateTime parseToLocalDateTime(String dateStr, String format) {
+        return DateUtils.asLocalDateTime(parse(dateStr, format));
+    }
+
+    /**
+     * @param dateStr dateStr
+     * @param format format
+     * @return epoch millis
+     */
+    public long parseToEpochMillis(String dateStr, String format) {
+        validateDateString(dateStr);
+        requireNonNull(format, "The format passed cannot be null");
+
+        if (dateStr.length() > MAX_CACHED_LENGTH || format.length() > MAX_CACHED_LENGTH) {
+            misses.increment();
+            return DateUtils.parse(dateStr, format).getTime();
+        }
+
+        int hash = spread(31 * format.hashCode() + dateStr.hashCode());
+        int set = hash & setMask;
+        int first = set * WAYS;
+
+        for (int i = first; i < first + WAYS; i++) {
+            Entry entry = entries.get(i);
+            if (entry != null && entry.matches(hash, dateStr, format)) {
+                if (referenced.get(i) == 0)
+                    referenced.lazySet(i, 1);
+                hits.increment();
+                return entry.epochMillis;
+            }
+        }
+
+        misses.increment();
+        long epochMillis = DateUtils.parse(dateStr, format).getTime();
+        insert(set, new Entry(hash, dateStr, format, epochMillis));
+        return epochMillis;
+    }
+
+    /**
+     * @return count of calls answered from cache
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return count of calls which were parsed
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return hits / (hits + misses), zero if there were no calls
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Remove all entries and reset statistics
+     */
+    public void clear() {
+        for (int i = 0; i < entries.length(); i++) {
+            entries.set(i, null);
+            referenced.set(i, 0);
+        }
+        for (int i = 0; i < hands.length(); i++) {
+            hands.set(i, 0);
+        }
+        hits.reset();
+        misses.reset();
+    }
+
+
+    /**
+     * Take empty slot of the set, otherwise move the hand of the set from slot to slot, clearing reference bits,
+     * until a slot without reference bit is found. It is replaced and the hand stops after it.
+     */
+    private void insert(int set, Entry entry) {
+        int first = set * WAYS;
+        for (int i = first; i < first + WAYS; i++) {
+            // bit is cleared only if the slot is ours, otherwise it belongs to the entry of another thread
+            if (entries.get(i) == null && entries.compareAndSet(i, null, entry)) {
+                referenced.lazySet(i, 0);
+                return;
+            }
+        }
+
+        // after a full turn all bits are cleared, so the slot under the hand is taken
+        int hand = hands.get(set);
+        int victim = first + hand;
+        for (int step = 0; step <= WAYS; step++) {
+            victim = first + ((hand + step) & (WAYS - 1));
+            if (referenced.get(victim) == 0)
+                break;
+            referenced.lazySet(victim, 0);
+        }
+        hands.lazySet(set, (victim - first + 1) & (WAYS - 1));
+
+        referenced.lazySet(victim, 0);
+        entries.set(victim, entry);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static void validateDateString(String dateStr) {
+        requireNonNull(dateStr, "The dateString passed cannot be null");
+    }
+
+    private static final class Entry {
+
+        private final int hash;
+
+        private final String dateStr;
+
+        private final String format;
+
+        private final long epochMillis;
+
+        private Entry(int hash, String dateStr, String format, long epochMillis) {
+            this.hash = hash;
+            this.dateStr = dateStr;
+            this.format = format;
+            this.epochMillis = epochMillis;
+        }
+
+        private boolean matches(int hash, String dateStr, String format) {
+            return this.hash == hash && this.dateStr.equals(dateStr) && this.format.equals(format);
+        }
+    }
+}
@@ -0,0 +1,778 @@
+package util;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+import static java.util.Objects.requireNonNull;
+import static util.DateUtils.toEpochDay;
+import static util.DateUtils.toEpochMillis;
+import static util.DateUtils.toMillisOfDay;
+
+/**
+ * Subset of RFC 5545 RRULE: FREQ (DAILY, WEEKLY, MONTHLY, YEARLY), INTERVAL, COUNT, UNTIL,
+ * BYMONTH, BYMONTHDAY, BYDAY (with ordinals for MONTHLY and YEARLY) and BYSETPOS.
+ * Week starts on Monday.
+ *
+ * Examples:
+ * first Monday of month - "FREQ=MONTHLY;BYDAY=1MO",
+ * last business day of month - "FREQ=MONTHLY;BYDAY=MO,TU,WE,TH,FR;BYSETPOS=-1",
+ * last day of quarter - "FREQ=YEARLY;BYMONTH=3,6,9,12;BYMONTHDAY=-1".
+ *
+ * Occurrences keep the time of day of the start date and are generated lazily as epoch millis.
+ * Start date itself is returned only if it matches the rule.
+ */
+public class RecurrenceRule {
+
+    public enum Frequency {
+        DAILY, WEEKLY, MONTHLY, YEARLY
+    }
+
+    /**
+     * Periods in the 400-year Gregorian cycle after which days, weekdays and months repeat.
+     * If a whole cycle has no occurrences the rule never matches (Ex.: "BYMONTH=2;BYMONTHDAY=30").
+     */
+    private static final int CYCLE_DAYS = 146097;
+    private static final int CYCLE_WEEKS = CYCLE_DAYS / 7;
+    private static final int CYCLE_MONTHS = 400 * 12;
+    private static final int CYCLE_YEARS = 400;
+
+    private static final String[] WEEKDAYS = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"};
+
+    private static final long[] EMPTY = new long[0];
+
+    private static final int ALL_MONTHS = 0x1FFE;   // bits 1..12
+
+    private final Frequency frequency;
+
+    private final int interval;
+
+    private final int count;            // 0 if not limited
+
+    private final long until;           // Long.MAX_VALUE if not limited
+
+    private final int byMonthMask;      // bit per month 1..12, 0 if not set
+
+    private final int[] byMonthDay;
+
+    private final int[] byDayWeekday;   // 0 = Monday
+
+    private final int[] byDayOrdinal;   // 0 = every weekday in period
+
+    private final int[] bySetPos;
+
+    private final long startMillis;
+
+    private final long startDay;
+
+    private final long timeOfDay;
+
+    private RecurrenceRule(Builder builder, long startMillis) {
+        this.frequency = builder.frequency;
+        this.interval = builder.interval;
+        this.count = builder.count;
+        this.until = builder.until;
+        this.byMonthMask = builder.byMonthMask;
+        this.byMonthDay = builder.byMonthDay;
+        this.byDayWeekday = builder.byDayWeekday;
+        this.byDayOrdinal = builder.byDayOrdinal;
+        this.bySetPos = builder.bySetPos;
+        this.startMillis = startMillis;
+
+        this.startDay = toEpochDay(startMillis);
+        this.timeOfDay = toMillisOfDay(startMillis);
+    }
+
+    /**
+     * @param rule rule, Ex.: "FREQ=MONTHLY;INTERVAL=2;BYDAY=-1FR" (prefix "RRULE:" is allowed)
+     * @param start start date
+     * @return RecurrenceRule
+     */
+    public static RecurrenceRule parse(String rule, Date start) {
+        requireNonNull(rule, "The rule passed cannot be null");
+        requireNonNull(start, "The date passed cannot be null");
+
+        String value = rule.trim();
+        if (value.toUpperCase(Locale.ROOT).startsWith("RRULE:"))
+            value = value.substring("RRULE:".length());
+
+        Builder builder = new Builder();
+        Set<String> names = new HashSet<>();
+        for (String part : value.split(";")) {
+            if (part.isEmpty())
+                continue;
+
+            int eq = part.indexOf('=');
+            if (eq <= 0)
+                throw new IllegalArgumentException("Invalid RRULE part: " + part);
+
+            String name = part.substring(0, eq).toUpperCase(Locale.ROOT);
+            if (!names.add(name))
+                throw new IllegalArgumentException("RRULE part cannot be repeated: " + name);
+
+            builder.set(name, part.substring(eq + 1).toUpperCase(Locale.ROOT));
+        }
+
+        if (builder.frequency == null)
+            throw new IllegalArgumentException("FREQ is required: " + rule);
+        if (builder.count > 0 && builder.until != Long.MAX_VALUE)
+            throw new IllegalArgumentException("COUNT and UNTIL cannot be used together: " + rule);
+        if (builder.frequency == Frequency.WEEKLY && builder.byMonthDay.length > 0)
+            throw new IllegalArgumentException("BYMONTHDAY cannot be used with FREQ=WEEKLY: " + rule);
+        if ((builder.frequency == Frequency.DAILY || builder.frequency == Frequency.WEEKLY) && builder.hasByDayOrdinal())
+            throw new IllegalArgumentException("BYDAY ordinals are allowed only with FREQ=MONTHLY or YEARLY: " + rule);
+
+        return new RecurrenceRule(builder, start.getTime());
+    }
+
+    /**
+     * @return all occurrences as epoch millis, infinite if neither COUNT nor UNTIL is set
+     */
+    public LongStream occurrences() {
+        return stream(new OccurrenceIterator(Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    /**
+     * With included boundary dates, like {@link DateUtils#isBetween(Date, Date, Date)}.
+     * Without COUNT generation starts directly from the period containing dateFrom.
+     *
+     * @param dateFrom dateFrom
+     * @param dateTo dateTo
+     * @return occurrences as epoch millis
+     */
+    public LongStream occurrencesBetween(Date dateFrom, Date dateTo) {
+        requireNonNull(dateFrom, "The date passed cannot be null");
+        requireNonNull(dateTo, "The date passed cannot be null");
+
+        return stream(new OccurrenceIterator(dateFrom.getTime(), dateTo.getTime()));
+    }
+
+    /**
+     * @return frequency
+     */
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+
+    private static LongStream stream(PrimitiveIterator.OfLong iterator) {
+        int characteristics = Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+        return StreamSupport.longStream(Spliterators.spliteratorUnknownSize(iterator, characteristics), false);
+    }
+
+    /**
+     * @param day epoch day
+     * @return period which contains day, may be negative
+     */
+    private long periodOf(long day) {
+        long distance;
+        switch (frequency) {
+            case DAILY:
+                distance = day - startDay;
+                break;
+            case WEEKLY:
+                distance = Math.floorDiv(day - weekday(day) - (startDay - weekday(startDay)), 7L);
+                break;
+            case MONTHLY:
+                distance = monthIndex(LocalDate.ofEpochDay(day)) - monthIndex(LocalDate.ofEpochDay(startDay));
+                break;
+            default:
+                distance = LocalDate.ofEpochDay(day).getYear() - LocalDate.ofEpochDay(startDay).getYear();
+        }
+        return Math.floorDiv(distance, (long) interval);
+    }
+
+    /**
+     * @param period period number from start
+     * @return first epoch day of period
+     */
+    private long periodStart(long period) {
+        switch (frequency) {
+            case DAILY:
+                return startDay + period * interval;
+            case WEEKLY:
+                return startDay - weekday(startDay) + period * interval * 7;
+            case MONTHLY:
+                return LocalDate.ofEpochDay(startDay).withDayOfMonth(1).plusMonths(period * interval).toEpochDay();
+            default:
+                return LocalDate.ofEpochDay(startDay).withDayOfYear(1).plusYears(period * interval).toEpochDay();
+        }
+    }
+
+    /**
+     * Next period to expand after an empty one: DAILY jumps to the next day matching BY-rules,
+     * other frequencies skip periods which lie in months excluded by BYMONTH
+     *
+     * @param period empty period
+     * @return next period which may have occurrences
+     */
+    private long nextPeriod(long period) {
+        if (frequency == Frequency.DAILY)
+            return nextMatchingDayPeriod(periodStart(period) + 1);
+        if (byMonthMask == 0 || frequency == Frequency.YEARLY)
+            return period + 1;
+
+        LocalDate first = LocalDate.ofEpochDay(periodStart(period));
+        LocalDate last = frequency == Frequency.WEEKLY ? first.plusDays(6) : first;
+        if (matchesMonth(first.getMonthValue()) || matchesMonth(last.getMonthValue()))
+            return period + 1;
+
+        long target = nextMatchingMonth(last).toEpochDay();
+        long next = periodOf(target);
+        if (periodEnd(next) < target)
+            next++;
+
+        return Math.max(period + 1, next);
+    }
+
+    /**
+     * Month by month search of the first day from "from" matching BYMONTH, BYMONTHDAY and BYDAY
+     * which is a multiple of INTERVAL days from start
+     *
+     * @param from epoch day
+     * @return period of that day, or a period after a whole cycle if there is no such day
+     */
+    private long nextMatchingDayPeriod(long from) {
+        LocalDate firstOfMonth = LocalDate.ofEpochDay(from).withDayOfMonth(1);
+        for (int months = 0; months <= CYCLE_MONTHS; months++, firstOfMonth = firstOfMonth.plusMonths(1)) {
+            if (!matchesMonth(firstOfMonth.getMonthValue()))
+                continue;
+
+            long first = firstOfMonth.toEpochDay();
+            long last = first + firstOfMonth.lengthOfMonth() - 1;
+            if (byMonthDay.length == 0 && byDayWeekday.length == 0) {
+                long day = Math.max(first, from);
+                day += Math.floorMod(startDay - day, (long) interval);
+                if (day <= last)
+                    return periodOf(day);
+                continue;
+            }
+
+            for (long day : expandInRange(first, last)) {
+                if (day >= from && Math.floorMod(day - startDay, (long) interval) == 0)
+                    return periodOf(day);
+            }
+        }
+        return periodOf(from) + cyclePeriods() + 1;
+    }
+
+    /**
+     * @param period period number from start
+     * @return last epoch day of period
+     */
+    private long periodEnd(long period) {
+        long first = periodStart(period);
+        switch (frequency) {
+            case DAILY:
+                return first;
+            case WEEKLY:
+                return first + 6;
+            case MONTHLY:
+                return first + LocalDate.ofEpochDay(first).lengthOfMonth() - 1;
+            default:
+                return first + LocalDate.ofEpochDay(first).lengthOfYear() - 1;
+        }
+    }
+
+    /**
+     * @param date date
+     * @return first day of the first month after date which matches BYMONTH
+     */
+    private LocalDate nextMatchingMonth(LocalDate date) {
+        LocalDate month = date.withDayOfMonth(1).plusMonths(1);
+        while (!matchesMonth(month.getMonthValue())) {
+            month = month.plusMonths(1);
+        }
+        return month;
+    }
+
+    /**
+     * @return count of periods in which occurrences repeat
+     */
+    private long cyclePeriods() {
+        switch (frequency) {
+            case DAILY:
+                return CYCLE_DAYS;
+            case WEEKLY:
+                return CYCLE_WEEKS;
+            case MONTHLY:
+                return CYCLE_MONTHS;
+            default:
+                return CYCLE_YEARS;
+        }
+    }
+
+    /**
+     * @param period period number from start
+     * @return sorted epoch days of occurrences in period
+     */
+    private long[] expand(long period) {
+        long[] days;
+        switch (frequency) {
+            case DAILY:
+                days = expandDaily(startDay + period * interval);
+                break;
+            case WEEKLY:
+                days = expandWeekly(startDay - weekday(startDay) + period * interval * 7);
+                break;
+            case MONTHLY:
+                days = expandMonthly(LocalDate.ofEpochDay(startDay).withDayOfMonth(1).plusMonths(period * interval));
+                break;
+            default:
+                days = expandYearly(LocalDate.ofEpochDay(startDay).getYear() + period * interval);
+        }
+
+        days = applySetPos(days);
+
+        int from = 0;
+        while (from < days.length && days[from] < startDay) {
+            from++;
+        }
+        return from == 0 ? days : Arrays.copyOfRange(days, from, days.length);
+    }
+
+    private long[] expandDaily(long day) {
+        LocalDate date = LocalDate.ofEpochDay(day);
+        if (!matchesMonth(date.getMonthValue()))
+            return EMPTY;
+
+        if (byMonthDay.length > 0) {
+            long[] monthDays = monthDays(day - date.getDayOfMonth() + 1, day - date.getDayOfMonth() + date.lengthOfMonth());
+            if (Arrays.binarySearch(monthDays, day) < 0)
+                return EMPTY;
+        }
+
+        if (byDayWeekday.length > 0 && !containsWeekday(weekday(day)))
+            return EMPTY;
+
+        return new long[] {day};
+    }
+
+    private long[] expandWeekly(long monday) {
+        if (byDayWeekday.length == 0)
+            return filterByMonth(new long[] {monday + weekday(startDay)});
+
+        long[] days = new long[byDayWeekday.length];
+        for (int i = 0; i < days.length; i++) {
+            days[i] = monday + byDayWeekday[i];
+        }
+        return filterByMonth(sortDistinct(days, days.length));
+    }
+
+    private long[] expandMonthly(LocalDate firstOfMonth) {
+        if (!matchesMonth(firstOfMonth.getMonthValue()))
+            return EMPTY;
+
+        return expandInRange(firstOfMonth.toEpochDay(), firstOfMonth.toEpochDay() + firstOfMonth.lengthOfMonth() - 1);
+    }
+
+    private long[] expandYearly(long year) {
+        if (year < LocalDate.MIN.getYear() || year > LocalDate.MAX.getYear())
+            return EMPTY;
+
+        LocalDate firstOfYear = LocalDate.of((int) year, 1, 1);
+
+        // BYDAY without BYMONTH and BYMONTHDAY - ordinals are counted within the year
+        if (byMonthMask == 0 && byDayWeekday.length > 0 && byMonthDay.length == 0)
+            return expandInRange(firstOfYear.toEpochDay(), firstOfYear.toEpochDay() + firstOfYear.lengthOfYear() - 1);
+
+        // BYMONTHDAY without BYMONTH is expanded to every month, without BY-rules only the start month is used
+        int mask = byMonthMask;
+        if (mask == 0)
+            mask = byMonthDay.length > 0 ? ALL_MONTHS : 1 << LocalDate.ofEpochDay(startDay).getMonthValue();
+
+        long[] days = EMPTY;
+        for (int month = 1; month <= 12; month++) {
+            if ((mask & (1 << month)) == 0)
+                continue;
+
+            LocalDate firstOfMonth = firstOfYear.withMonth(month);
+            long[] monthDays = expandInRange(firstOfMonth.toEpochDay(),
+                    firstOfMonth.toEpochDay() + firstOfMonth.lengthOfMonth() - 1);
+
+            long[] merged = Arrays.copyOf(days, days.length + monthDays.length);
+            System.arraycopy(monthDays, 0, merged, days.length, monthDays.length);
+            days = merged;
+        }
+        return days;
+    }
+
+    /**
+     * @param first first epoch day of month (or year)
+     * @param last last epoch day of month (or year)
+     * @return sorted epoch days matching BYMONTHDAY and BYDAY
+     */
+    private long[] expandInRange(long first, long last) {
+        if (byMonthDay.length == 0 && byDayWeekday.length == 0) {
+            long day = first + LocalDate.ofEpochDay(startDay).getDayOfMonth() - 1;
+            return day <= last ? new long[] {day} : EMPTY;
+        }
+
+        long[] monthDays = byMonthDay.length > 0 ? monthDays(first, last) : null;
+        long[] weekDays = byDayWeekday.length > 0 ? weekDays(first, last) : null;
+
+        if (monthDays == null)
+            return weekDays;
+        if (weekDays == null)
+            return monthDays;
+
+        long[] both = new long[Math.min(monthDays.length, weekDays.length)];
+        int size = 0;
+        for (long day : monthDays) {
+            if (Arrays.binarySearch(weekDays, day) >= 0)
+                both[size++] = day;
+        }
+        return Arrays.copyOf(both, size);
+    }
+
+    private long[] monthDays(long first, long last) {
+        long[] days = new long[byMonthDay.length];
+        int size = 0;
+        for (int monthDay : byMonthDay) {
+            long day = monthDay > 0 ? first + monthDay - 1 : last + monthDay + 1;
+            if (day >= first && day <= last)
+                days[size++] = day;
+        }
+        return sortDistinct(days, size);
+    }
+
+    private long[] weekDays(long first, long last) {
+        long[] days = new long[16];
+        int size = 0;
+        for (int i = 0; i < byDayWeekday.length; i++) {
+            long firstMatch = first + Math.floorMod(byDayWeekday[i] - weekday(first), 7);
+            long lastMatch = last - Math.floorMod(weekday(last) - byDayWeekday[i], 7);
+            int ordinal = byDayOrdinal[i];
+
+            if (ordinal == 0) {
+                for (long day = firstMatch; day <= last; day += 7) {
+                    days = ensureCapacity(days, size);
+                    days[size++] = day;
+                }
+                continue;
+            }
+
+            long day = ordinal > 0 ? firstMatch + (ordinal - 1) * 7L : lastMatch + (ordinal + 1) * 7L;
+            if (day >= first && day <= last) {
+                days = ensureCapacity(days, size);
+                days[size++] = day;
+            }
+        }
+        return sortDistinct(days, size);
+    }
+
+    private long[] applySetPos(long[] days) {
+        if (bySetPos.length == 0 || days.length == 0)
+            return days;
+
+        long[] selected = new long[bySetPos.length];
+        int size = 0;
+        for (int pos : bySetPos) {
+            int index = pos > 0 ? pos - 1 : days.length + pos;
+            if (index >= 0 && index < days.length)
+                selected[size++] = days[index];
+        }
+        return sortDistinct(selected, size);
+    }
+
+    private long[] filterByMonth(long[] days) {
+        if (byMonthMask == 0)
+            return days;
+
+        long[] filtered = new long[days.length];
+        int size = 0;
+        for (long day : days) {
+            if (matchesMonth(LocalDate.ofEpochDay(day).getMonthValue()))
+                filtered[size++] = day;
+        }
+        return Arrays.copyOf(filtered, size);
+    }
+
+    private boolean matchesMonth(int month) {
+        return byMonthMask == 0 || (byMonthMask & (1 << month)) != 0;
+    }
+
+    private boolean containsWeekday(int weekday) {
+        for (int value : byDayWeekday) {
+            if (value == weekday)
+                return true;
+        }
+        return false;
+    }
+
+    private long toMillis(long day) {
+        return toEpochMillis(day, timeOfDay);
+    }
+
+    private static long[] sortDistinct(long[] days, int size) {
+        Arrays.sort(days, 0, size);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || days[distinct - 1] != days[i])
+                days[distinct++] = days[i];
+        }
+        return distinct == days.length ? days : Arrays.copyOf(days, distinct);
+    }
+
+    private static long[] ensureCapacity(long[] days, int size) {
+        return size < days.length ? days : Arrays.copyOf(days, days.length * 2);
+    }
+
+    /**
+     * @param epochDay epochDay
+     * @return 0 for Monday .. 6 for Sunday
+     */
+    private static int weekday(long epochDay) {
+        return (int) Math.floorMod(epochDay + 3, 7L);  // 1970-01-01 is Thursday
+    }
+
+    private static long monthIndex(LocalDate date) {
+        return date.getYear() * 12L + date.getMonthValue() - 1;
+    }
+
+    /**
+     * Walks periods, jumping over months excluded by BYMONTH. Stops after a whole 400-year cycle without occurrences
+     */
+    private class OccurrenceIterator implements PrimitiveIterator.OfLong {
+
+        private final long from;
+
+        private final long to;
+
+        private long period;
+
+        private long lastNotEmpty;
+
+        private long[] days = EMPTY;
+
+        private int index;
+
+        private int emitted;
+
+        private boolean finished;
+
+        private long next;
+
+        private boolean hasNext;
+
+        private OccurrenceIterator(long from, long to) {
+            this.from = from;
+            this.to = Math.min(to, until);
+
+            // COUNT requires every occurrence from start, otherwise jump to period of "from"
+            if (count == 0 && from > startMillis)
+                this.period = Math.max(0, periodOf(toEpochDay(from)));
+            this.lastNotEmpty = period;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!hasNext && !finished) {
+                advance();
+            }
+            return hasNext;
+        }
+
+        @Override
+        public long nextLong() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            hasNext = false;
+            return next;
+        }
+
+        private void advance() {
+            while (index == days.length) {
+                if (period - lastNotEmpty > cyclePeriods() || toMillis(periodStart(period)) > to) {
+                    finished = true;
+                    return;
+                }
+
+                days = expand(period);
+                index = 0;
+                if (days.length > 0) {
+                    lastNotEmpty = period++;
+                } else {
+                    period = nextPeriod(period);
+                }
+            }
+
+            long millis = toMillis(days[index++]);
+            if (millis > to || (count > 0 && emitted == count)) {
+                finished = true;
+                return;
+            }
+
+            emitted++;
+            if (millis >= from) {
+                next = millis;
+                hasNext = true;
+            }
+        }
+    }
+
+    private static class Builder {
+
+        private static final DateTimeFormatter UNTIL_DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("uuuuMMdd'T'HHmmss")
+                .withResolverStyle(ResolverStyle.STRICT);
+
+        private static final DateTimeFormatter UNTIL_DATE_FORMATTER = DateTimeFormatter.ofPattern("uuuuMMdd")
+                .withResolverStyle(ResolverStyle.STRICT);
+
+        private Frequency frequency;
+
+        private int interval = 1;
+
+        private int count;
+
+        private long until = Long.MAX_VALUE;
+
+        private int byMonthMask;
+
+        private int[] byMonthDay = new int[0];
+
+        private int[] byDayWeekday = new int[0];
+
+        private int[] byDayOrdinal = new int[0];
+
+        private int[] bySetPos = new int[0];
+
+        private void set(String name, String value) {
+            switch (name) {
+                case "FREQ":
+                    frequency = parseFrequency(value);
+                    break;
+                case "INTERVAL":
+                    interval = parsePositive(name, value);
+                    break;
+                case "COUNT":
+                    count = parsePositive(name, value);
+                    break;
+                case "UNTIL":
+                    until = parseUntil(value);
+                    break;
+                case "WKST":
+                    if (!"MO".equals(value))
+                        throw new IllegalArgumentException("Only WKST=MO is supported: " + value);
+                    break;
+                case "BYMONTH":
+                    for (int month : parseList(name, value, 1, 12, false)) {
+                        byMonthMask |= 1 << month;
+                    }
+                    break;
+                case "BYMONTHDAY":
+                    byMonthDay = parseList(name, value, -31, 31, true);
+                    break;
+                case "BYDAY":
+                    parseByDay(value);
+                    break;
+                case "BYSETPOS":
+                    bySetPos = parseList(name, value, -366, 366, true);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported RRULE part: " + name);
+            }
+        }
+
+        private boolean hasByDayOrdinal() {
+            for (int ordinal : byDayOrdinal) {
+                if (ordinal != 0)
+                    return true;
+            }
+            return false;
+        }
+
+        private void parseByDay(String value) {
+            String[] items = value.split(",");
+            byDayWeekday = new int[items.length];
+            byDayOrdinal = new int[items.length];
+
+            for (int i = 0; i < items.length; i++) {
+                String item = items[i].trim();
+                if (item.length() < 2)
+                    throw new IllegalArgumentException("Invalid BYDAY: " + value);
+
+                int weekday = Arrays.asList(WEEKDAYS).indexOf(item.substring(item.length() - 2));
+                if (weekday < 0)
+                    throw new IllegalArgumentException("Invalid BYDAY: " + value);
+
+                String ordinal = item.substring(0, item.length() - 2);
+                byDayWeekday[i] = weekday;
+                byDayOrdinal[i] = ordinal.isEmpty() ? 0 : parseInt("BYDAY", ordinal, -53, 53, true);
+            }
+        }
+
+        private static Frequency parseFrequency(String value) {
+            try {
+                return Frequency.valueOf(value);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported FREQ: " + value, e);
+            }
+        }
+
+        /**
+         * UNTIL with "Z" is in UTC, without it in the default zone offset like the start date.
+         * UNTIL without time includes the whole day
+         */
+        private static long parseUntil(String value) {
+            try {
+                if (value.contains("T") && value.endsWith("Z"))
+                    return LocalDateTime.parse(value.substring(0, value.length() - 1), UNTIL_DATE_TIME_FORMATTER)
+                            .toInstant(ZoneOffset.UTC)
+                            .toEpochMilli();
+
+                if (value.contains("T")) {
+                    LocalDateTime dateTime = LocalDateTime.parse(value, UNTIL_DATE_TIME_FORMATTER);
+                    return toEpochMillis(dateTime.toLocalDate().toEpochDay(), dateTime.toLocalTime().toSecondOfDay() * 1000L);
+                }
+
+                LocalDate date = LocalDate.parse(value, UNTIL_DATE_FORMATTER);
+                return toEpochMillis(date.toEpochDay() + 1, 0) - 1;
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid UNTIL: " + value, e);
+            }
+        }
+
+        private static int parsePositive(String name, String value) {
+            return parseInt(name, value, 1, Integer.MAX_VALUE, false);
+        }
+
+        private static int[] parseList(String name, String value, int min, int max, boolean signed) {
+            String[] items = value.split(",");
+            int[] result = new int[items.length];
+            for (int i = 0; i < items.length; i++) {
+                result[i] = parseInt(name, items[i].trim(), min, max, signed);
+            }
+            return result;
+        }
+
+        private static int parseInt(String name, String value, int min, int max, boolean signed) {
+            int result;
+            try {
+                result = Integer.parseInt(value.startsWith("+") ? value.substring(1) : value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid " + name + ": " + value, e);
+            }
+
+            if (result < min || result > max || (signed && result == 0))
+                throw new IllegalArgumentException("Invalid " + name + ": " + value);
+
+            return result;
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+import static java.util.Objects.requireNonNull;
+import static util.DateUtils.DEFAULT_OFFSET_MSEC;
+import static util.DateUtils.DEFAULT_ZONE_OFFSET;
+
+/**
+ * Streaming CSV/TSV writer of rows with heterogeneous cells.
+ * Every cell is written like {@link DateUtils#toStringISOIfDate(Object)}, null cells are written as empty fields.
+ *
+ * Type of each column is resolved on the first row and reused while the cell class stays the same.
+ * Dates are formatted directly into the buffer without SimpleDateFormat and temporary strings.
+ * Not thread-safe.
+ */
+public class RowSerializer implements AutoCloseable {
+
+    public enum Format {
+        CSV(','), TSV('\t');
+
+        private final char delimiter;
+
+        Format(char delimiter) {
+            this.delimiter = delimiter;
+        }
+    }
+
+    private enum CellType {
+        DATE, LOCAL_DATE_TIME, LOCAL_DATE, OTHER
+    }
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Before Gregorian cutover (1582-10-15, plus a day for time zone offsets) SimpleDateFormat uses Julian calendar,
+     * such dates are delegated to DateUtils. Constant instead of GregorianCalendar lookup to keep class init cheap.
+     */
+    private static final long GREGORIAN_CUTOVER = -12219292800000L + DateUtils.DAY_IN_MSEC;
+
+    private final Format format;
+
+    private final Writer writer;
+
+    private final ByteBuffer byteBuffer;
+
+    private final CharsetEncoder encoder;
+
+    private final TimeZone timeZone = TimeZone.getDefault();   // SimpleDateFormat in DateUtils.toString formats in default time zone
+
+    private char[] buffer = new char[BUFFER_SIZE];
+
+    private int position;
+
+    private Class<?>[] columnClasses = new Class<?>[0];
+
+    private CellType[] columnTypes = new CellType[0];
+
+    /**
+     * @param writer writer
+     * @param format format
+     */
+    public RowSerializer(Writer writer, Format format) {
+        this.writer = requireNonNull(writer, "The writer passed cannot be null");
+        this.format = requireNonNull(format, "The format passed cannot be null");
+        this.byteBuffer = null;
+        this.encoder = null;
+    }
+
+    /**
+     * Rows are encoded in UTF-8. While byteBuffer is full rows stay buffered (the buffer grows), so rows are never cut.
+     * flush() and close() throw BufferOverflowException if byteBuffer is full: drain byteBuffer and call flush() again
+     *
+     * @param byteBuffer byteBuffer
+     * @param format format
+     */
+    public RowSerializer(ByteBuffer byteBuffer, Format format) {
+        this.byteBuffer = requireNonNull(byteBuffer, "The byteBuffer passed cannot be null");
+        this.format = requireNonNull(format, "The format passed cannot be null");
+        this.writer = null;
+        this.encoder = StandardCharsets.UTF_8.newEncoder();
+    }
+
+    /**
+     * @param cells cells
+     */
+    public void writeRow(Object... cells) {
+        requireNonNull(cells, "The cells passed cannot be null");
+        ensureColumns(cells.length);
+
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0)
+                append(format.delimiter);
+            writeCell(i, cells[i]);
+        }
+        append('\n');
+    }
+
+    /**
+     * @param cells cells
+     */
+    public void writeRow(List<?> cells) {
+        requireNonNull(cells, "The cells passed cannot be null");
+        ensureColumns(cells.size());
+
+        int i = 0;
+        for (Object cell : cells) {
+            if (i > 0)
+                append(format.delimiter);
+            writeCell(i++, cell);
+        }
+        append('\n');
+    }
+
+    /**
+     * Write buffered rows to writer or byteBuffer
+     */
+    public void flush() {
+        flushBuffer();
+        if (writer == null)
+            return;
+
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        if (writer == null) {
+            checkEncoded(encode(true));
+            return;
+        }
+
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+
+    private void writeCell(int column, Object cell) {
+        if (cell == null)
+            return;
+
+        switch (typeOf(column, cell)) {
+            case DATE:
+                appendISO(((Date) cell).getTime(), cell);
+                break;
+            case LOCAL_DATE_TIME:
+                LocalDateTime localDateTime = (LocalDateTime) cell;
+                appendISO(localDateTime.toEpochSecond(DEFAULT_ZONE_OFFSET) * 1000 + localDateTime.getNano() / 1_000_000, cell);
+                break;
+            case LOCAL_DATE:
+                appendISO(DateUtils.toEpochMillis(((LocalDate) cell).toEpochDay(), 0), cell);
+                break;
+            default:
+                appendEscaped(cell.toString());
+        }
+    }
+
+    private CellType typeOf(int column, Object cell) {
+        Class<?> type = cell.getClass();
+        if (columnClasses[column] == type)
+            return columnTypes[column];
+
+        CellType cellType;
+        if (cell instanceof Date)
+            cellType = CellType.DATE;
+        else if (cell instanceof LocalDateTime)
+            cellType = CellType.LOCAL_DATE_TIME;
+        else if (cell instanceof LocalDate)
+            cellType = CellType.LOCAL_DATE;
+        else
+            cellType = CellType.OTHER;
+
+        columnClasses[column] = type;
+        columnTypes[column] = cellType;
+        return cellType;
+    }
+
+    private void ensureColumns(int count) {
+        if (count <= columnClasses.length)
+            return;
+
+        columnClasses = Arrays.copyOf(columnClasses, count);
+        columnTypes = Arrays.copyOf(columnTypes, count);
+    }
+
+    /**
+     * Same output as {@link DateUtils#toStringISO(Date)}
+     */
+    private void appendISO(long epochMillis, Object cell) {
+        if (epochMillis < GREGORIAN_CUTOVER) {
+            appendEscaped(DateUtils.toStringISOIfDate(cell));
+            return;
+        }
+
+        long packed = PackedDateTime.ofEpochMillis(epochMillis + timeZone.getOffset(epochMillis) - DEFAULT_OFFSET_MSEC);
+
+        int year = PackedDateTime.getYear(packed);
+        if (year > 9999) {
+            appendEscaped(Integer.toString(year));
+        } else {
+            appendDigits(year, 4);
+        }
+        append('-');
+        appendDigits(PackedDateTime.getMonth(packed), 2);
+        append('-');
+        appendDigits(PackedDateTime.getDayOfMonth(packed), 2);
+        append('T');
+        appendDigits(PackedDateTime.getHour(packed), 2);
+        append(':');
+        appendDigits(PackedDateTime.getMinute(packed), 2);
+        append(':');
+        appendDigits(PackedDateTime.getSecond(packed), 2);
+    }
+
+    private void appendDigits(int value, int width) {
+        if (position + width > buffer.length)
+            ensureCapacity(width);
+
+        for (int i = position + width - 1; i >= position; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        position += width;
+    }
+
+    private void appendEscaped(String value) {
+        if (format == Format.CSV)
+            appendCsv(value);
+        else
+            appendTsv(value);
+    }
+
+    /**
+     * RFC 4180: quote field with delimiter, quote or line break, double inner quotes
+     */
+    private void appendCsv(String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+
+        if (!quote) {
+            append(value);
+            return;
+        }
+
+        append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"')
+                append('"');
+            append(c);
+        }
+        append('"');
+    }
+
+    /**
+     * Tab, line breaks and backslash are written as escape sequences
+     */
+    private void appendTsv(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\t':
+                    append('\\');
+                    append('t');
+                    break;
+                case '\n':
+                    append('\\');
+                    append('n');
+                    break;
+                case '\r':
+                    append('\\');
+                    append('r');
+                    break;
+                case '\\':
+                    append('\\');
+                    append('\\');
+                    break;
+                default:
+                    append(c);
+            }
+        }
+    }
+
+    private void append(String value) {
+        int offset = 0;
+        while (offset < value.length()) {
+            if (position == buffer.length)
+                ensureCapacity(1);
+
+            int count = Math.min(value.length() - offset, buffer.length - position);
+            value.getChars(offset, offset + count, buffer, position);
+            position += count;
+            offset += count;
+        }
+    }
+
+    private void append(char c) {
+        if (position == buffer.length)
+            ensureCapacity(1);
+        buffer[position++] = c;
+    }
+
+    private void flushBuffer() {
+        if (writer != null)
+            writeBuffer();
+        else
+            checkEncoded(encode(false));
+    }
+
+    /**
+     * Room for count more chars in the middle of a row: buffered chars are written out
+     * (in ByteBuffer mode as many as fit) and the buffer grows if that is not enough.
+     * Nothing is thrown here, so a row is never cut, overflow is reported by flush() and close()
+     */
+    private void ensureCapacity(int count) {
+        if (writer != null)
+            writeBuffer();
+        else
+            encode(false);
+
+        if (position + count > buffer.length)
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + count));
+    }
+
+    private void writeBuffer() {
+        if (position == 0)
+            return;
+
+        try {
+            writer.write(buffer, 0, position);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        position = 0;
+    }
+
+    /**
+     * Chars which are not encoded (byteBuffer is full, a char cannot be encoded or the high half
+     * of a surrogate pair is the last buffered char) are moved to the start of buffer for the next call
+     *
+     * @param endOfInput true on close, then the encoder is flushed too
+     * @return result of encoding
+     */
+    private CoderResult encode(boolean endOfInput) {
+        CharBuffer chars = CharBuffer.wrap(buffer, 0, position);
+        CoderResult result = encoder.encode(chars, byteBuffer, endOfInput);
+        if (endOfInput && result.isUnderflow())
+            result = encoder.flush(byteBuffer);
+
+        int remaining = chars.remaining();
+        System.arraycopy(buffer, chars.position(), buffer, 0, remaining);
+        position = remaining;
+        return result;
+    }
+
+    private static void checkEncoded(CoderResult result) {
+        if (result.isOverflow())
+            throw new BufferOverflowException();
+        if (result.isError())
+            throw new IllegalArgumentException("Cannot encode row: " + result);
+    }
+}
@@ -0,0 +1,477 @@
+package util;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.requireNonNull;
+import static util.DateUtils.toEpochDay;
+
+/**
+ * Append-only memory-mapped column of sorted epoch millis.
+ *
+ * Data file layout: [count][value 0][value 1]... (all longs).
+ * Index file (same name + ".idx") holds pairs [epochDay][first row] for every day
+ * present in the column, days are aligned like {@link DateUtils#getBeginCurrDay(Date)}.
+ *
+ * One writer and any number of readers in the same JVM may work concurrently:
+ * readers only see rows published by a completed {@link #append(long)}.
+ * {@link #close()} waits for running reads to finish, reads started after it throw IllegalStateException.
+ */
+public class TimestampColumn implements AutoCloseable {
+
+    public static final String INDEX_FILE_SUFFIX = ".idx";
+
+    private static final int HEADER_BYTES = Long.BYTES;
+
+    private static final int SEGMENT_SHIFT = 27;  // 128 MB per mapped segment
+
+    private static final long SEGMENT_BYTES = 1L << SEGMENT_SHIFT;
+
+    private static final long MIN_MAPPED_BYTES = 1L << 16;  // mapping of last segment grows twice from 64 KB
+
+    private final FileChannel dataChannel;
+
+    private final FileChannel indexChannel;
+
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+
+    private volatile DayIndex dayIndex;
+
+    private volatile long size;
+
+    private volatile boolean closed;
+
+    /**
+     * Count of reads in progress, the file is not cut under them
+     */
+    private final AtomicInteger activeReads = new AtomicInteger();
+
+    private TimestampColumn(FileChannel dataChannel, FileChannel indexChannel) {
+        this.dataChannel = dataChannel;
+        this.indexChannel = indexChannel;
+    }
+
+    /**
+     * Open existing column or create new one
+     *
+     * @param path path to data file
+     * @return TimestampColumn
+     */
+    public static TimestampColumn open(Path path) {
+        requireNonNull(path, "The path passed cannot be null");
+
+        FileChannel data = null;
+        FileChannel index = null;
+        try {
+            data = new RandomAccessFile(path.toFile(), "rw").getChannel();
+            index = new RandomAccessFile(Paths.get(path + INDEX_FILE_SUFFIX).toFile(), "rw").getChannel();
+
+            TimestampColumn column = new TimestampColumn(data, index);
+            column.load();
+            return column;
+        } catch (IOException e) {
+            closeQuietly(data);
+            closeQuietly(index);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Values must be appended in non-decreasing order
+     *
+     * @param epochMillis epochMillis
+     */
+    public synchronized void append(long epochMillis) {
+        ensureOpen();
+
+        long count = size;
+        if (count > 0 && epochMillis < get(count - 1))
+            throw new IllegalArgumentException("Values must be appended in sorted order: " + epochMillis);
+
+        long position = HEADER_BYTES + count * Long.BYTES;
+        segment(position).putLong(offsetInSegment(position), epochMillis);
+
+        long day = toEpochDay(epochMillis);
+        DayIndex current = dayIndex;
+        if (current.count == 0 || current.days[current.count - 1] != day) {
+            writeIndexEntry(day, count, current.count);
+            dayIndex = current.append(day, count);
+        }
+
+        segments[0].putLong(0, count + 1);
+        size = count + 1;
+    }
+
+    /**
+     * @param date date
+     */
+    public void append(Date date) {
+        validateDate(date);
+        append(date.getTime());
+    }
+
+    /**
+     * @return count of stored values
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @param row row
+     * @return epoch millis stored in row
+     */
+    public long get(long row) {
+        beginRead();
+        try {
+            if (row < 0 || row >= size)
+                throw new IndexOutOfBoundsException("Row: " + row + ", size: " + size);
+
+            return read(row);
+        } finally {
+            endRead();
+        }
+    }
+
+    /**
+     * With included boundary dates, like {@link DateUtils#isBetween(Date, Date, Date)}
+     *
+     * @param dateFrom dateFrom
+     * @param dateTo dateTo
+     * @return count of values in range
+     */
+    public long countBetween(Date dateFrom, Date dateTo) {
+        validateDate(dateFrom);
+        validateDate(dateTo);
+        return countBetween(dateFrom.getTime(), dateTo.getTime());
+    }
+
+    /**
+     * With included boundary values
+     *
+     * @param from from epoch millis
+     * @param to to epoch millis
+     * @return count of values in range
+     */
+    public long countBetween(long from, long to) {
+        beginRead();
+        try {
+            long[] range = findRange(from, to);
+            return range[1] - range[0];
+        } finally {
+            endRead();
+        }
+    }
+
+    /**
+     * With included boundary dates, like {@link DateUtils#isBetween(Date, Date, Date)}
+     *
+     * @param dateFrom dateFrom
+     * @param dateTo dateTo
+     * @return values in range
+     */
+    public long[] between(Date dateFrom, Date dateTo) {
+        validateDate(dateFrom);
+        validateDate(dateTo);
+        return between(dateFrom.getTime(), dateTo.getTime());
+    }
+
+    /**
+     * With included boundary values
+     *
+     * @param from from epoch millis
+     * @param to to epoch millis
+     * @return values in range
+     */
+    public long[] between(long from, long to) {
+        beginRead();
+        try {
+            long[] range = findRange(from, to);
+            long count = range[1] - range[0];
+            if (count > Integer.MAX_VALUE - 8)
+                throw new IllegalStateException("Too many values in range: " + count);
+
+            long[] result = new long[(int) count];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = read(range[0] + i);
+            }
+            return result;
+        } finally {
+            endRead();
+        }
+    }
+
+    /**
+     * Flush written values to storage
+     */
+    public synchronized void force() {
+        ensureOpen();
+        forceSegments();
+    }
+
+    /**
+     * Flush and cut data file to stored values, waits for running reads, repeated calls do nothing
+     */
+    @Override
+    public synchronized void close() {
+        if (closed)
+            return;
+
+        closed = true;
+        try {
+            // reads which passed the check before closed was set still use the mappings
+            while (activeReads.get() > 0) {
+                Thread.yield();
+            }
+            forceSegments();
+            segments = new MappedByteBuffer[0];
+            dataChannel.truncate(HEADER_BYTES + size * Long.BYTES);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            closeQuietly(dataChannel);
+            closeQuietly(indexChannel);
+        }
+    }
+
+
+    private void forceSegments() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+        try {
+            indexChannel.force(false);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return [first row, row after last] of values in range
+     */
+    private long[] findRange(long from, long to) {
+        long count = size;
+        DayIndex index = dayIndex;
+        if (count == 0 || from > to)
+            return new long[] {0, 0};
+
+        long lower = lowerBound(index, count, from);
+        long upper = to == Long.MAX_VALUE ? count : lowerBound(index, count, to + 1);
+        return new long[] {lower, Math.max(lower, upper)};
+    }
+
+    /**
+     * First row with value >= key, jumps to the day of key via the sparse index
+     * and binary-searches only within that day
+     */
+    private long lowerBound(DayIndex index, long count, long key) {
+        int entries = index.visibleEntries(count);
+        int pos = Arrays.binarySearch(index.days, 0, entries, toEpochDay(key));
+        if (pos < 0) {
+            int insertion = -pos - 1;
+            return insertion == entries ? count : index.rows[insertion];
+        }
+
+        long low = index.rows[pos];
+        long high = pos + 1 < entries ? index.rows[pos + 1] : count;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (read(mid) < key)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    private long read(long row) {
+        long position = HEADER_BYTES + row * Long.BYTES;
+        return segments[(int) (position >>> SEGMENT_SHIFT)].getLong(offsetInSegment(position));
+    }
+
+    private void load() throws IOException {
+        segment(0);
+        long count = segments[0].getLong(0);
+
+        DayIndex index = readIndex(count);
+        long indexedRows = index.count == 0 ? 0 : index.rows[index.count - 1];
+
+        if (count > 0)
+            segment(HEADER_BYTES + (count - 1) * Long.BYTES);
+        size = count;
+        dayIndex = index;
+
+        // index may lag behind the data after a crash, restore only the tail
+        long fromRow = index.count == 0 ? 0 : indexedRows;
+        long previousDay = index.count == 0 ? Long.MIN_VALUE : index.days[index.count - 1];
+        for (long row = fromRow; row < count; row++) {
+            long day = toEpochDay(read(row));
+            if (day != previousDay) {
+                writeIndexEntry(day, row, dayIndex.count);
+                dayIndex = dayIndex.append(day, row);
+                previousDay = day;
+            }
+        }
+    }
+
+    private DayIndex readIndex(long count) throws IOException {
+        int entries = (int) (indexChannel.size() / (2 * Long.BYTES));
+        ByteBuffer buffer = ByteBuffer.allocate(entries * 2 * Long.BYTES);
+        while (buffer.hasRemaining()) {
+            if (indexChannel.read(buffer, buffer.position()) < 0)
+                throw new IOException("Unexpected end of index file");
+        }
+        buffer.flip();
+
+        DayIndex index = new DayIndex(new long[Math.max(16, entries)], new long[Math.max(16, entries)], 0);
+        for (int i = 0; i < entries; i++) {
+            long day = buffer.getLong();
+            long row = buffer.getLong();
+            if (row >= count)
+                break;
+            index = index.append(day, row);
+        }
+
+        if (index.count != entries)
+            indexChannel.truncate((long) index.count * 2 * Long.BYTES);
+
+        return index;
+    }
+
+    private void writeIndexEntry(long day, long row, int entry) {
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Long.BYTES);
+        buffer.putLong(day).putLong(row).flip();
+        try {
+            long position = (long) entry * 2 * Long.BYTES;
+            while (buffer.hasRemaining()) {
+                position += indexChannel.write(buffer, position);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Segment in which the long at position is mapped. Full segments are mapped whole,
+     * the last one is remapped with doubled size when needed, so the file grows with the data.
+     */
+    private MappedByteBuffer segment(long position) {
+        int number = (int) (position >>> SEGMENT_SHIFT);
+        long required = offsetInSegment(position) + Long.BYTES;
+
+        MappedByteBuffer[] current = segments;
+        if (number < current.length && current[number].capacity() >= required)
+            return current[number];
+
+        MappedByteBuffer[] grown = Arrays.copyOf(current, Math.max(current.length, number + 1));
+        try {
+            for (int i = 0; i < number; i++) {
+                if (grown[i] == null || grown[i].capacity() < SEGMENT_BYTES)
+                    grown[i] = map(i, SEGMENT_BYTES);
+            }
+
+            long mapped = grown[number] == null ? MIN_MAPPED_BYTES : grown[number].capacity();
+            while (mapped < required) {
+                mapped *= 2;
+            }
+            grown[number] = map(number, Math.min(mapped, SEGMENT_BYTES));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        segments = grown;
+        return grown[number];
+    }
+
+    private MappedByteBuffer map(int number, long bytes) throws IOException {
+        return dataChannel.map(FileChannel.MapMode.READ_WRITE, number * SEGMENT_BYTES, bytes);
+    }
+
+    private void ensureOpen() {
+        if (closed)
+            throw new IllegalStateException("Column is closed");
+    }
+
+    /**
+     * Counter is raised before closed is checked and close() sets closed before waiting for the counter,
+     * so either the read sees closed or close() sees the read
+     */
+    private void beginRead() {
+        activeReads.incrementAndGet();
+        if (closed) {
+            activeReads.decrementAndGet();
+            throw new IllegalStateException("Column is closed");
+        }
+    }
+
+    private void endRead() {
+        activeReads.decrementAndGet();
+    }
+
+    private static int offsetInSegment(long position) {
+        return (int) (position & (SEGMENT_BYTES - 1));
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null)
+            return;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // nothing to do
+        }
+    }
+
+    private static void validateDate(Date date) {
+        requireNonNull(date, "The date passed cannot be null");
+    }
+
+    /**
+     * Snapshot of the sparse day index. Arrays are shared between snapshots,
+     * readers never look past their own count.
+     */
+    private static final class DayIndex {
+
+        private final long[] days;
+
+        private final long[] rows;
+
+        private final int count;
+
+        private DayIndex(long[] days, long[] rows, int count) {
+            this.days = days;
+            this.rows = rows;
+            this.count = count;
+        }
+
+        private DayIndex append(long day, long row) {
+            long[] newDays = days;
+            long[] newRows = rows;
+            if (count == days.length) {
+                newDays = Arrays.copyOf(days, count * 2);
+                newRows = Arrays.copyOf(rows, count * 2);
+            }
+            newDays[count] = day;
+            newRows[count] = row;
+            return new DayIndex(newDays, newRows, count + 1);
+        }
+
+        /**
+         * Entries pointing past published rows belong to an append still in progress
+         */
+        private int visibleEntries(long size) {
+            int entries = count;
+            while (entries > 0 && rows[entries - 1] >= size) {
+                entries--;
+            }
+            return entries;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import org.junit.Test;
 import java.time.LocalDateTime;
 import java.time.Month;
 import java.util.Date;
+import java.util.Locale;
 import java.util.TimeZone;
 
 import static org.hamcrest.Matchers.equalTo;
@@ -157,6 +158,42 @@ public class DateUtilsTest {
         assertThat(date.getTime(), equalTo(1485993600000L));
     }
 
+    @Test
+    public void parseISO_WhenNotCanonical_ShouldBeLenientAsBefore() {
+        assertThat(parseISO("2017-2-2T10:10:10"), equalTo(parseISO("2017-02-02T10:10:10")));
+        assertThat(parseISO("2017-02-30"), equalTo(parseISO("2017-03-02")));
+        assertThat(parseISO("2017-02-02T24:00:00"), equalTo(parseISO("2017-02-03T00:00:00")));
+        assertThat(parseISO("1582-10-05"), equalTo(parseISO("1582-10-15")));
+    }
+
+    @Test
+    public void toString_WhenDefaultTimeZoneChanged() {
+        Date date = parseISO("2017-02-02T10:10:10");
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("GMT+3"));
+            assertThat(DateUtils.toString(date, DATE_FORMAT_ISO), equalTo("2017-02-02T13:10:10"));
+        } finally {
+            TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+        }
+        assertThat(DateUtils.toString(date, DATE_FORMAT_ISO), equalTo("2017-02-02T10:10:10"));
+    }
+
+    @Test
+    public void toString_WhenDefaultLocaleChanged() {
+        Date date = parseISO("2017-02-02T10:10:10");
+        Locale defaultLocale = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.ENGLISH);
+            assertThat(DateUtils.toString(date, "MMMM"), equalTo("February"));
+
+            Locale.setDefault(Locale.GERMAN);
+            assertThat(DateUtils.toString(date, "MMMM"), equalTo("Februar"));
+            assertThat(DateUtils.parse("2. Februar 2017", "d. MMMM yyyy"), equalTo(parseISO("2017-02-02")));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
     @Test(expected = RuntimeException.class)
     public void parseISO_WhenInvalidFormat() {
         Date date = parseISO("02022017");
@@ -0,0 +1,138 @@
+package util;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.TimeZone;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.*;
+import static util.DateUtils.parseISO;
+
+public class IntervalSetTest {
+
+    @BeforeClass
+    public static void setUp() {
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+    }
+
+    @Test
+    public void of_WhenOverlappingAndAdjacent_ShouldBeMerged() {
+        IntervalSet set = IntervalSet.of(new long[] {20, 0, 5, 11}, new long[] {30, 10, 7, 12});
+
+        // expectation
+        IntervalSet expected = IntervalSet.of(0, 12).union(IntervalSet.of(20, 30));
+
+        assertThat(set, equalTo(expected));
+        assertThat(set.size(), equalTo(2));
+    }
+
+    @Test
+    public void contains_WhenEqualsBoundaries() {
+        IntervalSet set = IntervalSet.of(parseISO("2018-02-02T00:00:00"), parseISO("2018-02-02T23:59:59"));
+
+        assertTrue(set.contains(parseISO("2018-02-02T00:00:00")));
+        assertTrue(set.contains(parseISO("2018-02-02T23:59:59")));
+        assertFalse(set.contains(parseISO("2018-02-03T00:00:00")));
+    }
+
+    @Test
+    public void union() {
+        IntervalSet first = IntervalSet.of(0, 10).union(IntervalSet.of(30, 40));
+        IntervalSet second = IntervalSet.of(5, 20).union(IntervalSet.of(41, 50));
+
+        // expectation
+        IntervalSet expected = IntervalSet.of(new long[] {0, 30}, new long[] {20, 50});
+
+        assertThat(first.union(second), equalTo(expected));
+    }
+
+    @Test
+    public void intersect() {
+        IntervalSet first = IntervalSet.of(0, 10).union(IntervalSet.of(30, 40));
+        IntervalSet second = IntervalSet.of(10, 35);
+
+        // expectation
+        IntervalSet expected = IntervalSet.of(new long[] {10, 30}, new long[] {10, 35});
+
+        assertThat(first.intersect(second), equalTo(expected));
+    }
+
+    @Test
+    public void minus() {
+        IntervalSet first = IntervalSet.of(0, 100);
+        IntervalSet second = IntervalSet.of(10, 20).union(IntervalSet.of(100, 200));
+
+        // expectation
+        IntervalSet expected = IntervalSet.of(new long[] {0, 21}, new long[] {9, 99});
+
+        assertThat(first.minus(second), equalTo(expected));
+    }
+
+    @Test
+    public void gapsBetween() {
+        IntervalSet busy = IntervalSet.of(parseISO("2018-02-02T10:00:00"), parseISO("2018-02-02T11:00:00"));
+        IntervalSet free = busy.gapsBetween(parseISO("2018-02-02T09:00:00"), parseISO("2018-02-02T12:00:00"));
+
+        assertThat(free.size(), equalTo(2));
+        assertThat(free.getTo(0), equalTo(parseISO("2018-02-02T10:00:00").getTime() - 1));
+        assertThat(free.getFrom(1), equalTo(parseISO("2018-02-02T11:00:00").getTime() + 1));
+        assertThat(busy.gaps(), equalTo(IntervalSet.empty()));
+    }
+
+    @Test
+    public void getCountDays_ShouldBeSameAsGetCountDaysBetween() {
+        Date from = parseISO("2017-02-02T10:10:10");
+        Date to = parseISO("2017-02-04T08:10:10");
+        IntervalSet set = IntervalSet.of(from, to);
+
+        assertThat(set.getCountDays(), equalTo(DateUtils.getCountDaysBetween(from, to)));
+        assertThat(set.getTotalMillis(), equalTo(to.getTime() - from.getTime() + 1));
+    }
+
+    @Test
+    public void getTotalMillis_WhenAdjacentRanges_ShouldBeSumOfParts() {
+        IntervalSet first = IntervalSet.of(0, 9);
+        IntervalSet second = IntervalSet.of(10, 19);
+
+        assertThat(first.union(second).getTotalMillis(), equalTo(first.getTotalMillis() + second.getTotalMillis()));
+        assertThat(first.union(second).getTotalMillis(), equalTo(20L));
+    }
+
+    @Test
+    public void union_WhenLargeSets_ShouldBeSameAsSequential() {
+        int count = 100_000;
+        long[] from = new long[count];
+        long[] to = new long[count];
+        for (int i = 0; i < count; i++) {
+            from[i] = i * 10L;
+            to[i] = i * 10L + 4;
+        }
+        IntervalSet first = IntervalSet.of(from, to);
+
+        for (int i = 0; i < count; i++) {
+            from[i] = i * 10L + 5;
+            to[i] = i * 10L + 6;
+        }
+        IntervalSet second = IntervalSet.of(from, to);
+
+        IntervalSet union = first.union(second);
+
+        assertThat(union.size(), equalTo(count));
+        assertThat(union.getFrom(count - 1), equalTo((count - 1) * 10L));
+        assertThat(union.getTo(count - 1), equalTo((count - 1) * 10L + 6));
+        assertThat(first.intersect(second), equalTo(IntervalSet.empty()));
+        assertThat(union.minus(second), equalTo(first));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void of_WhenFromAfterTo() {
+        IntervalSet.of(parseISO("2018-02-03"), parseISO("2018-02-02"));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void of_WhenNull() {
+        IntervalSet.of(null, parseISO("2018-02-02"));
+    }
+}
@@ -0,0 +1,100 @@
+package util;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.TimeZone;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.*;
+import static util.DateUtils.parseISO;
+
+public class PackedDateTimeTest {
+
+    @BeforeClass
+    public static void setUp() {
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+    }
+
+    @Test
+    public void of_WhenFields() {
+        long packed = PackedDateTime.of(2017, 2, 2, 10, 10, 10, 123);
+
+        assertThat(PackedDateTime.getYear(packed), equalTo(2017));
+        assertThat(PackedDateTime.getMonth(packed), equalTo(2));
+        assertThat(PackedDateTime.getDayOfMonth(packed), equalTo(2));
+        assertThat(PackedDateTime.getHour(packed), equalTo(10));
+        assertThat(PackedDateTime.getMinute(packed), equalTo(10));
+        assertThat(PackedDateTime.getSecond(packed), equalTo(10));
+        assertThat(PackedDateTime.getMillis(packed), equalTo(123));
+    }
+
+    @Test
+    public void ofEpochMillis_WhenDate() {
+        Date date = parseISO("2017-02-02T10:10:10");
+        long packed = PackedDateTime.of(date);
+
+        assertThat(packed, equalTo(PackedDateTime.of(2017, 2, 2, 10, 10, 10, 0)));
+        assertThat(PackedDateTime.toDate(packed), equalTo(date));
+    }
+
+    @Test
+    public void ofEpochMillis_WhenBeforeEpochAndLeapDay() {
+        long[] millis = {
+                parseISO("1969-12-31T23:59:59").getTime() + 999,
+                parseISO("1900-02-28T00:00:00").getTime(),
+                parseISO("2000-02-29T12:00:00").getTime(),
+                parseISO("2400-12-31T23:59:59").getTime()
+        };
+
+        for (long value : millis) {
+            long packed = PackedDateTime.ofEpochMillis(value);
+            assertThat(PackedDateTime.toEpochMillis(packed), equalTo(value));
+            assertThat(PackedDateTime.toLocalDateTime(packed), equalTo(DateUtils.asLocalDateTime(new Date(value))));
+        }
+    }
+
+    @Test
+    public void of_WhenLocalDateTime() {
+        LocalDateTime localDateTime = LocalDateTime.of(2017, 2, 2, 10, 10, 10, 5_000_000);
+        long packed = PackedDateTime.of(localDateTime);
+
+        assertThat(PackedDateTime.toLocalDateTime(packed), equalTo(localDateTime));
+    }
+
+    @Test
+    public void compare_ShouldBeChronological() {
+        long before = PackedDateTime.of(-1, 12, 31, 23, 59, 59, 999);
+        long yearZero = PackedDateTime.of(0, 1, 1, 0, 0, 0, 0);
+        long first = PackedDateTime.of(2017, 2, 2, 10, 10, 10, 0);
+        long second = PackedDateTime.of(2017, 2, 2, 10, 10, 10, 1);
+        long third = PackedDateTime.of(2017, 12, 1, 0, 0, 0, 0);
+
+        assertTrue(before < yearZero);
+        assertTrue(yearZero < first);
+        assertTrue(first < second);
+        assertTrue(second < third);
+    }
+
+    @Test
+    public void truncate_WhenDayMonthYear() {
+        long packed = PackedDateTime.of(2017, 2, 2, 10, 10, 10, 123);
+
+        assertThat(PackedDateTime.truncateToDay(packed), equalTo(PackedDateTime.of(2017, 2, 2, 0, 0, 0, 0)));
+        assertThat(PackedDateTime.truncateToMonth(packed), equalTo(PackedDateTime.of(2017, 2, 1, 0, 0, 0, 0)));
+        assertThat(PackedDateTime.truncateToYear(packed), equalTo(PackedDateTime.of(2017, 1, 1, 0, 0, 0, 0)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void of_WhenInvalidDay() {
+        PackedDateTime.of(2017, 2, 29, 0, 0, 0, 0);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void of_WhenNull() {
+        Date date = null;
+        PackedDateTime.of(date);
+    }
+}
@@ -0,0 +1,150 @@
+package util;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.Date;
+import java.util.TimeZone;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.*;
+import static util.DateUtils.DATE_FORMAT_ISO;
+
+public class ParseCacheTest {
+
+    @BeforeClass
+    public static void setUp() {
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+    }
+
+    @Test
+    public void parse_ShouldBeSameAsDateUtils() {
+        ParseCache cache = new ParseCache();
+
+        assertThat(cache.parse("2016-02-02", "yyyy-MM-dd"), equalTo(DateUtils.parse("2016-02-02", "yyyy-MM-dd")));
+        assertThat(cache.parseISO("2017-02-02T10:10:10"), equalTo(DateUtils.parseISO("2017-02-02T10:10:10")));
+        assertThat(cache.parseISO("2017-02-02"), equalTo(DateUtils.parseISO("2017-02-02")));
+    }
+
+    @Test
+    public void parse_WhenRepeated_ShouldCountHits() {
+        ParseCache cache = new ParseCache();
+        for (int i = 0; i < 4; i++) {
+            cache.parseISO("2017-02-02T10:10:10");
+        }
+
+        assertThat(cache.getMissCount(), equalTo(1L));
+        assertThat(cache.getHitCount(), equalTo(3L));
+        assertThat(cache.getHitRate(), equalTo(0.75));
+    }
+
+    @Test
+    public void parse_WhenCachedDateChanged_ShouldReturnFreshCopy() {
+        ParseCache cache = new ParseCache();
+        Date first = cache.parseISO("2017-02-02T10:10:10");
+        first.setTime(0);
+
+        Date second = cache.parseISO("2017-02-02T10:10:10");
+
+        assertNotSame(first, second);
+        assertThat(second.getTime(), equalTo(1486030210000L));
+    }
+
+    @Test
+    public void parse_WhenSameStringOtherFormat() {
+        ParseCache cache = new ParseCache();
+        Date dayFirst = cache.parse("02-03-2017", "dd-MM-yyyy");
+        Date monthFirst = cache.parse("02-03-2017", "MM-dd-yyyy");
+
+        assertThat(dayFirst, equalTo(DateUtils.parseISO("2017-03-02")));
+        assertThat(monthFirst, equalTo(DateUtils.parseISO("2017-02-03")));
+    }
+
+    @Test
+    public void parse_WhenMoreStringsThanCapacity_ShouldStayCorrect() {
+        ParseCache cache = new ParseCache(16);
+        Date base = DateUtils.parseISO("2017-02-02T00:00:00");
+
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < 100; i++) {
+                Date expected = new Date(base.getTime() + i * 1000L);
+                assertThat(cache.parse(DateUtils.toStringISO(expected), DATE_FORMAT_ISO), equalTo(expected));
+            }
+        }
+        assertThat(cache.getHitCount() + cache.getMissCount(), equalTo(200L));
+    }
+
+    @Test
+    public void parse_WhenWorkingSetFitsInSet_ShouldMissOnlyOnce() {
+        ParseCache cache = new ParseCache(4);
+        String[] dates = {"2017-02-02", "2017-02-03", "2017-02-04", "2017-02-05"};
+
+        for (int i = 0; i < 1000; i++) {
+            cache.parseISO(dates[i % 2]);
+        }
+        for (int i = 0; i < 1000; i++) {
+            cache.parseISO(dates[i % dates.length]);
+        }
+
+        assertThat(cache.getMissCount(), equalTo(4L));
+        assertThat(cache.getHitCount(), equalTo(2000L - 4));
+    }
+
+    @Test
+    public void parse_WhenSetIsFull_ShouldKeepReferencedEntry() {
+        ParseCache cache = new ParseCache(4);
+        for (String date : new String[]{"2017-02-02", "2017-02-03", "2017-02-04", "2017-02-05"}) {
+            cache.parseISO(date);
+        }
+        cache.parseISO("2017-02-02");
+
+        cache.parseISO("2017-02-06");
+        cache.parseISO("2017-02-02");
+
+        assertThat(cache.getMissCount(), equalTo(5L));
+        assertThat(cache.getHitCount(), equalTo(2L));
+    }
+
+    @Test
+    public void parse_WhenLongString_ShouldNotBeCached() {
+        ParseCache cache = new ParseCache();
+        StringBuilder padding = new StringBuilder();
+        for (int i = 0; i < ParseCache.MAX_CACHED_LENGTH; i++) {
+            padding.append(' ');
+        }
+        String dateStr = "2017-02-02T10:10:10" + padding;
+
+        Date first = cache.parseISO(dateStr);
+        Date second = cache.parseISO(dateStr);
+
+        assertThat(second, equalTo(first));
+        assertThat(first, equalTo(DateUtils.parseISO(dateStr)));
+        assertThat(cache.getMissCount(), equalTo(2L));
+        assertThat(cache.getHitCount(), equalTo(0L));
+    }
+
+    @Test
+    public void parseToLocalDateTime() {
+        ParseCache cache = new ParseCache();
+        LocalDateTime localDateTime = cache.parseToLocalDateTime("2016-02-02T10:10:10", DATE_FORMAT_ISO);
+
+        assertThat(localDateTime, equalTo(LocalDateTime.of(2016, Month.FEBRUARY, 2, 10, 10, 10)));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void parse_WhenInvalidDateString() {
+        new ParseCache().parse("2016_02-02", "yyyy-MM-dd");
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void parseISO_WhenNull() {
+        new ParseCache().parseISO(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_WhenInvalidCapacity() {
+        new ParseCache(0);
+    }
+}
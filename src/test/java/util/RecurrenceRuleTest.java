@@ -0,0 +1,240 @@
+package util;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.TimeZone;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.*;
+import static util.DateUtils.parseISO;
+
+public class RecurrenceRuleTest {
+
+    @BeforeClass
+    public static void setUp() {
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+    }
+
+    @Test
+    public void occurrences_WhenFirstMondayOfMonth() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=MONTHLY;BYDAY=1MO", parseISO("2018-01-01T09:00:00"));
+        long[] actual = rule.occurrences().limit(3).toArray();
+
+        // expectation
+        long[] expected = millis("2018-01-01T09:00:00", "2018-02-05T09:00:00", "2018-03-05T09:00:00");
+
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void occurrences_WhenLastBusinessDayOfMonth() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=MONTHLY;BYDAY=MO,TU,WE,TH,FR;BYSETPOS=-1",
+                parseISO("2018-01-01"));
+        long[] actual = rule.occurrences().limit(3).toArray();
+
+        // expectation
+        long[] expected = millis("2018-01-31", "2018-02-28", "2018-03-30");
+
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void occurrences_WhenLastDayOfQuarter() {
+        RecurrenceRule rule = RecurrenceRule.parse("RRULE:FREQ=YEARLY;BYMONTH=3,6,9,12;BYMONTHDAY=-1",
+                parseISO("2018-01-01"));
+        long[] actual = rule.occurrences().limit(4).toArray();
+
+        // expectation
+        long[] expected = millis("2018-03-31", "2018-06-30", "2018-09-30", "2018-12-31");
+
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void occurrences_WhenEveryOtherWeek() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=WEEKLY;INTERVAL=2;BYDAY=TU,TH", parseISO("2018-01-01"));
+        long[] actual = rule.occurrences().limit(3).toArray();
+
+        // expectation
+        long[] expected = millis("2018-01-02", "2018-01-04", "2018-01-16");
+
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void occurrences_WhenMonthHasNoDay_ShouldBeSkipped() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=MONTHLY", parseISO("2018-01-31"));
+        long[] actual = rule.occurrences().limit(3).toArray();
+
+        // expectation
+        long[] expected = millis("2018-01-31", "2018-03-31", "2018-05-31");
+
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void occurrences_WhenCount() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=DAILY;COUNT=3", parseISO("2018-01-30T10:10:10"));
+        long count = rule.occurrences().count();
+
+        assertThat(count, equalTo(3L));
+    }
+
+    @Test
+    public void occurrences_WhenUntilDate_ShouldIncludeWholeDay() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=DAILY;UNTIL=20180103", parseISO("2018-01-01T10:10:10"));
+        long[] actual = rule.occurrences().toArray();
+
+        // expectation
+        long[] expected = millis("2018-01-01T10:10:10", "2018-01-02T10:10:10", "2018-01-03T10:10:10");
+
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void occurrences_WhenNeverMatches_ShouldBeEmpty() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=YEARLY;BYMONTH=2;BYMONTHDAY=30", parseISO("2018-01-01"));
+        long count = rule.occurrences().count();
+
+        assertThat(count, equalTo(0L));
+    }
+
+    @Test
+    public void occurrences_WhenLeapDayOnly() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=DAILY;BYMONTH=2;BYMONTHDAY=29", parseISO("2020-03-01"));
+        long[] actual = rule.occurrences().limit(2).toArray();
+        long count = rule.occurrencesBetween(parseISO("2020-01-01"), parseISO("2030-01-01")).count();
+
+        // expectation
+        long[] expected = millis("2024-02-29", "2028-02-29");
+
+        assertArrayEquals(expected, actual);
+        assertThat(count, equalTo(2L));
+    }
+
+    @Test
+    public void occurrences_WhenYearlyByMonthDay_ShouldExpandAllMonths() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=YEARLY;BYMONTHDAY=1", parseISO("2018-01-01"));
+        long[] actual = rule.occurrences().limit(3).toArray();
+
+        // expectation
+        long[] expected = millis("2018-01-01", "2018-02-01", "2018-03-01");
+
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void occurrences_WhenFridayThe13th() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=YEARLY;BYDAY=FR;BYMONTHDAY=13", parseISO("2018-01-01"));
+        long[] actual = rule.occurrences().limit(3).toArray();
+
+        // expectation
+        long[] expected = millis("2018-04-13", "2018-07-13", "2019-09-13");
+
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void occurrences_WhenDailyByMonthDay_ShouldBeSameAsMonthly() {
+        Date start = parseISO("2018-01-01T10:10:10");
+        RecurrenceRule daily = RecurrenceRule.parse("FREQ=DAILY;BYMONTHDAY=1,-1", start);
+        RecurrenceRule monthly = RecurrenceRule.parse("FREQ=MONTHLY;BYMONTHDAY=1,-1", start);
+
+        Date from = parseISO("2018-01-01");
+        Date to = parseISO("3018-01-01");
+        long[] actual = daily.occurrencesBetween(from, to).toArray();
+
+        // expectation
+        long[] expected = monthly.occurrencesBetween(from, to).toArray();
+
+        assertThat(actual.length, equalTo(24000));
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void occurrences_WhenDailyIntervalByDay() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=DAILY;INTERVAL=3;BYDAY=MO", parseISO("2018-01-01"));
+        long[] actual = rule.occurrences().limit(3).toArray();
+
+        // expectation
+        long[] expected = millis("2018-01-01", "2018-01-22", "2018-02-12");
+
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void occurrences_WhenUntilInUtc() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=DAILY;UNTIL=20180103T101010Z", parseISO("2018-01-01T10:10:10"));
+        long[] actual = rule.occurrences().toArray();
+
+        // expectation
+        long[] expected = millis("2018-01-01T10:10:10", "2018-01-02T10:10:10", "2018-01-03T10:10:10");
+
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void occurrencesBetween_WhenFarFromStart() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=MONTHLY;BYDAY=1MO", parseISO("2018-01-01"));
+        long[] actual = rule.occurrencesBetween(parseISO("5000-01-01"), parseISO("5000-03-06")).toArray();
+
+        // expectation
+        long[] expected = millis("5000-01-06", "5000-02-03", "5000-03-03");
+
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void occurrencesBetween_WhenEqualsBoundaries() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=DAILY", parseISO("2018-01-01T10:10:10"));
+        long count = rule.occurrencesBetween(parseISO("2018-01-02T10:10:10"), parseISO("2018-01-04T10:10:10")).count();
+
+        assertThat(count, equalTo(3L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parse_WhenUnsupportedPart() {
+        RecurrenceRule.parse("FREQ=DAILY;BYWEEKNO=1", new Date());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parse_WhenDailyWithByDayOrdinal() {
+        RecurrenceRule.parse("FREQ=DAILY;BYDAY=1MO", new Date());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parse_WhenWeeklyWithByMonthDay() {
+        RecurrenceRule.parse("FREQ=WEEKLY;BYMONTHDAY=1", new Date());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parse_WhenInvalidUntil() {
+        RecurrenceRule.parse("FREQ=DAILY;UNTIL=20181340", new Date());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parse_WhenRepeatedPart() {
+        RecurrenceRule.parse("FREQ=DAILY;INTERVAL=2;INTERVAL=3", new Date());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parse_WhenWithoutFreq() {
+        RecurrenceRule.parse("INTERVAL=2", new Date());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void parse_WhenNull() {
+        RecurrenceRule.parse(null, new Date());
+    }
+
+
+    private static long[] millis(String... dates) {
+        long[] result = new long[dates.length];
+        for (int i = 0; i < dates.length; i++) {
+            result[i] = parseISO(dates[i]).getTime();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,185 @@
+package util;
+
+import org.hamcrest.core.IsEqual;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+import static util.DateUtils.parseISO;
+
+public class RowSerializerTest {
+
+    @BeforeClass
+    public static void setUp() {
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+    }
+
+    @Test
+    public void writeRow_WhenDates() {
+        StringWriter writer = new StringWriter();
+        try (RowSerializer serializer = new RowSerializer(writer, RowSerializer.Format.CSV)) {
+            serializer.writeRow(parseISO("2017-02-02T10:10:10"),
+                    LocalDateTime.of(2017, 2, 2, 10, 10, 10, 999_000_000),
+                    LocalDate.of(2017, 2, 2));
+        }
+
+        assertThat(writer.toString(), IsEqual.equalTo("2017-02-02T10:10:10,2017-02-02T10:10:10,2017-02-02T00:00:00\n"));
+    }
+
+    @Test
+    public void writeRow_ShouldBeSameAsToStringISOIfDate() {
+        Object[] cells = {
+                parseISO("1970-01-01T00:00:00"),
+                new Date(-1),
+                new java.sql.Timestamp(parseISO("2017-02-02T10:10:10").getTime()),
+                parseISO("1000-02-02T10:10:10"),
+                LocalDate.of(2400, 2, 29),
+                123L
+        };
+
+        StringWriter writer = new StringWriter();
+        try (RowSerializer serializer = new RowSerializer(writer, RowSerializer.Format.TSV)) {
+            serializer.writeRow(cells);
+        }
+
+        // expectation
+        StringBuilder expected = new StringBuilder();
+        for (Object cell : cells) {
+            if (expected.length() > 0)
+                expected.append('\t');
+            expected.append(DateUtils.toStringISOIfDate(cell));
+        }
+        expected.append('\n');
+
+        assertThat(writer.toString(), IsEqual.equalTo(expected.toString()));
+    }
+
+    @Test
+    public void writeRow_WhenColumnTypeChanges() {
+        StringWriter writer = new StringWriter();
+        try (RowSerializer serializer = new RowSerializer(writer, RowSerializer.Format.CSV)) {
+            serializer.writeRow(Arrays.asList(parseISO("2017-02-02"), 1));
+            serializer.writeRow(Arrays.asList("text", LocalDate.of(2017, 2, 3)));
+            serializer.writeRow(Arrays.asList(null, 2));
+        }
+
+        assertThat(writer.toString(), IsEqual.equalTo("2017-02-02T00:00:00,1\ntext,2017-02-03T00:00:00\n,2\n"));
+    }
+
+    @Test
+    public void writeRow_WhenCsvEscaping() {
+        StringWriter writer = new StringWriter();
+        try (RowSerializer serializer = new RowSerializer(writer, RowSerializer.Format.CSV)) {
+            serializer.writeRow("a,b", "say \"hi\"", "line\nbreak", "plain");
+        }
+
+        assertThat(writer.toString(), IsEqual.equalTo("\"a,b\",\"say \"\"hi\"\"\",\"line\nbreak\",plain\n"));
+    }
+
+    @Test
+    public void writeRow_WhenTsvEscaping() {
+        StringWriter writer = new StringWriter();
+        try (RowSerializer serializer = new RowSerializer(writer, RowSerializer.Format.TSV)) {
+            serializer.writeRow("a\tb", "line\nbreak", "back\\slash");
+        }
+
+        assertThat(writer.toString(), IsEqual.equalTo("a\\tb\tline\\nbreak\tback\\\\slash\n"));
+    }
+
+    @Test
+    public void writeRow_WhenByteBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        try (RowSerializer serializer = new RowSerializer(buffer, RowSerializer.Format.CSV)) {
+            serializer.writeRow(parseISO("2017-02-02T10:10:10"), "привет");
+        }
+
+        String actual = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+        assertThat(actual, IsEqual.equalTo("2017-02-02T10:10:10,привет\n"));
+    }
+
+    @Test
+    public void flush_WhenByteBufferOverflow_ShouldContinueAfterDrain() {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RowSerializer serializer = new RowSerializer(buffer, RowSerializer.Format.CSV);
+        serializer.writeRow(parseISO("2017-02-02T10:10:10"), "text");
+
+        try {
+            serializer.flush();
+            fail("BufferOverflowException expected");
+        } catch (BufferOverflowException e) {
+            drain(buffer, out);
+        }
+        serializer.close();
+        drain(buffer, out);
+
+        assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8), IsEqual.equalTo("2017-02-02T10:10:10,text\n"));
+    }
+
+    @Test
+    public void writeRow_WhenRowsExceedSmallByteBuffer_ShouldKeepRowsWhole() {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RowSerializer serializer = new RowSerializer(buffer, RowSerializer.Format.CSV);
+
+        int count = 2000;   // ~60 KB, many times the char buffer and the byteBuffer
+        for (int i = 0; i < count; i++) {
+            serializer.writeRow("row" + i, "value-" + i, "xxxxxxxxxx");
+            if (i % 500 == 0)
+                flushAll(serializer, buffer, out);
+        }
+        flushAll(serializer, buffer, out);
+        serializer.close();
+        drain(buffer, out);
+
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n", -1);
+        assertThat(lines.length, IsEqual.equalTo(count + 1));
+        for (int i = 0; i < count; i++) {
+            assertThat(lines[i], IsEqual.equalTo("row" + i + ",value-" + i + ",xxxxxxxxxx"));
+        }
+        assertThat(lines[count], IsEqual.equalTo(""));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void close_WhenUnpairedSurrogate() {
+        RowSerializer serializer = new RowSerializer(ByteBuffer.allocate(64), RowSerializer.Format.CSV);
+        serializer.writeRow("text\uD83D");
+
+        serializer.close();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void writeRow_WhenNull() {
+        RowSerializer serializer = new RowSerializer(new StringWriter(), RowSerializer.Format.CSV);
+        serializer.writeRow((Object[]) null);
+    }
+
+
+    private static void flushAll(RowSerializer serializer, ByteBuffer buffer, ByteArrayOutputStream out) {
+        while (true) {
+            try {
+                serializer.flush();
+                return;
+            } catch (BufferOverflowException e) {
+                drain(buffer, out);
+            }
+        }
+    }
+
+    private static void drain(ByteBuffer buffer, ByteArrayOutputStream out) {
+        buffer.flip();
+        out.write(buffer.array(), 0, buffer.limit());
+        buffer.clear();
+    }
+}
@@ -0,0 +1,80 @@
+package util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * Time-to-first-parse: every run is a fresh JVM which loads DateUtils and parses one ISO date.
+ * Run with "mvn -B test -P startup-benchmark" or directly: java -cp target/classes:target/test-classes util.StartupBenchmark [runs]
+ */
+public class StartupBenchmark {
+
+    private static final String CHILD = "--child";
+
+    private static final int DEFAULT_RUNS = 10;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && CHILD.equals(args[0])) {
+            measure();
+            return;
+        }
+
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_RUNS;
+
+        long[] firstParse = new long[runs];
+        long[] sinceJvmStart = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            String[] result = fork().split(" ");
+            firstParse[i] = Long.parseLong(result[0]);
+            sinceJvmStart[i] = Long.parseLong(result[1]);
+        }
+
+        System.out.println("runs: " + runs);
+        System.out.println("first parse, us (min / median / max): " + stats(firstParse));
+        System.out.println("since JVM start, ms (min / median / max): " + stats(sinceJvmStart));
+    }
+
+
+    /**
+     * Prints microseconds from main() to first parsed date and milliseconds since JVM start
+     */
+    private static void measure() {
+        long start = System.nanoTime();
+        Date date = DateUtils.parseISO("2018-02-02T10:10:10");
+        long firstParse = (System.nanoTime() - start) / 1000;
+        long sinceJvmStart = ManagementFactory.getRuntimeMXBean().getUptime();
+
+        if (date.getTime() != 1517566210000L)
+            throw new IllegalStateException("Unexpected parse result: " + date.getTime());
+
+        System.out.println(firstParse + " " + sinceJvmStart);
+    }
+
+    private static String fork() throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                StartupBenchmark.class.getName(), CHILD)
+                .redirectErrorStream(true)
+                .start();
+
+        String line;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            line = reader.readLine();
+        }
+
+        if (process.waitFor() != 0 || line == null)
+            throw new IllegalStateException("Benchmark run failed: " + line);
+
+        return line.trim();
+    }
+
+    private static String stats(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[0] + " / " + sorted[sorted.length / 2] + " / " + sorted[sorted.length - 1];
+    }
+}
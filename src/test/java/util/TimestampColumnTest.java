@@ -0,0 +1,215 @@
+package util;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.*;
+import static util.DateUtils.parseISO;
+
+public class TimestampColumnTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setUp() {
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+    }
+
+    @Test
+    public void countBetween_WhenWholeDay() throws Exception {
+        try (TimestampColumn column = TimestampColumn.open(dataFile())) {
+            appendEveryMinute(column, parseISO("2018-02-01T00:00:00"), 3 * 24 * 60);
+
+            long count = column.countBetween(parseISO("2018-02-02T00:00:00"), parseISO("2018-02-02T23:59:00"));
+
+            assertThat(count, equalTo(24L * 60));
+        }
+    }
+
+    @Test
+    public void countBetween_WhenOut_ShouldBeZero() throws Exception {
+        try (TimestampColumn column = TimestampColumn.open(dataFile())) {
+            appendEveryMinute(column, parseISO("2018-02-01T00:00:00"), 60);
+
+            long count = column.countBetween(parseISO("2018-02-03T00:00:00"), parseISO("2018-02-04T00:00:00"));
+
+            assertThat(count, equalTo(0L));
+        }
+    }
+
+    @Test
+    public void between_WhenEqualsBoundaries() throws Exception {
+        try (TimestampColumn column = TimestampColumn.open(dataFile())) {
+            appendEveryMinute(column, parseISO("2018-02-01T23:58:00"), 4);
+
+            long[] values = column.between(parseISO("2018-02-01T23:59:00"), parseISO("2018-02-02T00:00:00"));
+
+            // expectation
+            long[] expected = {
+                    parseISO("2018-02-01T23:59:00").getTime(),
+                    parseISO("2018-02-02T00:00:00").getTime()
+            };
+
+            assertArrayEquals(expected, values);
+        }
+    }
+
+    @Test
+    public void open_WhenReopen_ShouldKeepValuesAndIndex() throws Exception {
+        Path path = dataFile();
+        try (TimestampColumn column = TimestampColumn.open(path)) {
+            appendEveryMinute(column, parseISO("2018-02-01T00:00:00"), 2 * 24 * 60);
+        }
+
+        try (TimestampColumn column = TimestampColumn.open(path)) {
+            assertThat(column.size(), equalTo(2L * 24 * 60));
+
+            column.append(parseISO("2018-02-03T10:10:10"));
+            long count = column.countBetween(parseISO("2018-02-02T00:00:00"), parseISO("2018-02-03T23:59:59"));
+
+            assertThat(count, equalTo(24L * 60 + 1));
+        }
+    }
+
+    @Test
+    public void close_ShouldCutFileToValues() throws Exception {
+        Path path = dataFile();
+        TimestampColumn column = TimestampColumn.open(path);
+        appendEveryMinute(column, parseISO("2018-02-01T00:00:00"), 10);
+        column.close();
+        column.close();
+
+        assertThat(Files.size(path), equalTo(8L + 10 * 8));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void get_WhenClosed() throws Exception {
+        TimestampColumn column = TimestampColumn.open(dataFile());
+        column.append(parseISO("2018-02-02T10:10:10"));
+        column.close();
+
+        column.get(0);
+    }
+
+    @Test
+    public void append_WhenMoreThanFirstMapping_ShouldGrowAndKeepValues() throws Exception {
+        Path path = dataFile();
+        Date from = parseISO("2018-02-01T00:00:00");
+        int count = 100_000;   // 800 KB, mapping is remapped several times from 64 KB
+        try (TimestampColumn column = TimestampColumn.open(path)) {
+            appendEveryMinute(column, from, count);
+
+            for (int row = 0; row < count; row++) {
+                assertThat(column.get(row), equalTo(from.getTime() + (long) row * DateUtils.MIN_IN_MSEC));
+            }
+        }
+
+        try (TimestampColumn column = TimestampColumn.open(path)) {
+            assertThat(column.size(), equalTo((long) count));
+            assertThat(column.get(count - 1), equalTo(from.getTime() + (count - 1L) * DateUtils.MIN_IN_MSEC));
+            assertThat(column.countBetween(parseISO("2018-02-02T00:00:00"), parseISO("2018-02-02T23:59:00")),
+                    equalTo(24L * 60));
+        }
+    }
+
+    @Test
+    public void get_WhenReadDuringAppends_ShouldSeeOnlyPublishedValues() throws Exception {
+        Date from = parseISO("2018-02-01T00:00:00");
+        int count = 50_000;
+        try (TimestampColumn column = TimestampColumn.open(dataFile())) {
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            Thread reader = new Thread(() -> {
+                try {
+                    long seen = 0;
+                    while (seen < count) {
+                        long size = column.size();
+                        if (size < seen)
+                            throw new AssertionError("Size decreased: " + size + " < " + seen);
+                        if (size > 0 && column.get(size - 1) != from.getTime() + (size - 1) * DateUtils.MIN_IN_MSEC)
+                            throw new AssertionError("Unexpected value in row " + (size - 1));
+                        if (column.countBetween(Long.MIN_VALUE, Long.MAX_VALUE) < size)
+                            throw new AssertionError("Published rows not counted: " + size);
+                        seen = size;
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            });
+            reader.start();
+            appendEveryMinute(column, from, count);
+            reader.join();
+
+            assertNull(failure.get());
+        }
+    }
+
+    @Test
+    public void close_WhenReadersRunning_ShouldFailOnlyWithIllegalState() throws Exception {
+        TimestampColumn column = TimestampColumn.open(dataFile());
+        appendEveryMinute(column, parseISO("2018-02-01T00:00:00"), 20_000);
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch started = new CountDownLatch(4);
+        Thread[] readers = new Thread[4];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = new Thread(() -> {
+                started.countDown();
+                try {
+                    for (long row = 0; ; row = (row + 7919) % 20_000) {
+                        column.get(row);
+                        column.between(Long.MIN_VALUE, Long.MAX_VALUE);
+                    }
+                } catch (IllegalStateException expected) {
+                    // closed
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            });
+            readers[i].start();
+        }
+        started.await();
+        column.close();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertNull(failure.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void append_WhenNotSorted() throws Exception {
+        try (TimestampColumn column = TimestampColumn.open(dataFile())) {
+            column.append(parseISO("2018-02-02T10:10:10"));
+            column.append(parseISO("2018-02-02T10:10:09"));
+        }
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void append_WhenNull() throws Exception {
+        try (TimestampColumn column = TimestampColumn.open(dataFile())) {
+            column.append(null);
+        }
+    }
+
+
+    private Path dataFile() throws Exception {
+        return folder.getRoot().toPath().resolve("timestamps");
+    }
+
+    private static void appendEveryMinute(TimestampColumn column, Date from, int count) {
+        for (int i = 0; i < count; i++) {
+            column.append(from.getTime() + (long) i * DateUtils.MIN_IN_MSEC);
+        }
+    }
+}